@@ -0,0 +1,101 @@
+package com.ioidigital.orderservice.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ioidigital.orderservice.entity.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pricing an order (line totals and their sum) and writing its amounts as JSON, with
+ * {@link Money} and with plain {@link BigDecimal} arithmetic side by side, so one run shows the
+ * difference in time and in {@code gc.alloc.rate.norm}. Amounts are written as freshly computed,
+ * as in a response: a {@link BigDecimal} caches its text once printed, which would hide the cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyBenchmark {
+
+    @Param({"1", "3", "20"})
+    public int itemCount;
+
+    private int[] quantities;
+    private Money[] prices;
+    private BigDecimal[] decimalPrices;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        quantities = new int[itemCount];
+        prices = new Money[itemCount];
+        decimalPrices = new BigDecimal[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            quantities[i] = 1 + random.nextInt(3);
+            // 2.50 to 7.49, as loaded from a numeric(10,2) column
+            long cents = 250 + random.nextInt(500);
+            prices[i] = Money.ofMinor(cents);
+            decimalPrices[i] = BigDecimal.valueOf(cents, 2);
+        }
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public Money pricing(Blackhole blackhole) {
+        long totalCents = 0;
+        for (int i = 0; i < itemCount; i++) {
+            Money lineTotal = prices[i].times(quantities[i]);
+            blackhole.consume(lineTotal);
+            totalCents = Math.addExact(totalCents, lineTotal.minorUnits());
+        }
+        return Money.ofMinor(totalCents);
+    }
+
+    @Benchmark
+    public BigDecimal pricingBigDecimal(Blackhole blackhole) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < itemCount; i++) {
+            BigDecimal lineTotal = decimalPrices[i].multiply(BigDecimal.valueOf(quantities[i]));
+            blackhole.consume(lineTotal);
+            total = total.add(lineTotal);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public byte[] writeLineTotals() throws JsonProcessingException {
+        Money[] lineTotals = new Money[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            lineTotals[i] = prices[i].times(quantities[i]);
+        }
+        return objectMapper.writeValueAsBytes(lineTotals);
+    }
+
+    @Benchmark
+    public byte[] writeLineTotalsBigDecimal() throws JsonProcessingException {
+        BigDecimal[] lineTotals = new BigDecimal[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            lineTotals[i] = decimalPrices[i].multiply(BigDecimal.valueOf(quantities[i]));
+        }
+        return objectMapper.writeValueAsBytes(lineTotals);
+    }
+}
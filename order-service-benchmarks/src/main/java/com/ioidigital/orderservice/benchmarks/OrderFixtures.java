@@ -0,0 +1,59 @@
+package com.ioidigital.orderservice.benchmarks;
+
+import com.ioidigital.orderservice.entity.Money;
+import com.ioidigital.orderservice.entity.Order;
+import com.ioidigital.orderservice.entity.OrderItem;
+import com.ioidigital.orderservice.entity.OrderStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Orders shaped like production ones: menu prices with two decimals, small quantities, and item
+ * names of menu length. Seeded, so every fork sees the same data.
+ */
+public final class OrderFixtures {
+
+    private static final String[] NAMES = {"Latte", "Cappuccino", "Espresso", "Croissant", "Pumpkin Spice Latte"};
+
+    private OrderFixtures() {
+    }
+
+    public static List<OrderItem> items(int count, long seed) {
+        Random random = new Random(seed);
+        List<OrderItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(OrderItem.builder()
+                    .id(new UUID(seed, i))
+                    .orderId(new UUID(seed, 0))
+                    .menuItemId(new UUID(0, random.nextInt(50)))
+                    .itemName(NAMES[random.nextInt(NAMES.length)])
+                    .quantity(1 + random.nextInt(3))
+                    // 2.50 to 7.49
+                    .unitPrice(Money.ofMinor(250 + random.nextInt(500)))
+                    .build());
+        }
+        return items;
+    }
+
+    public static Order order(List<OrderItem> items, long seed) {
+        Money total = Money.ZERO;
+        for (OrderItem item : items) {
+            total = total.plus(item.getItemTotalPrice());
+        }
+        LocalDateTime orderTime = LocalDateTime.of(2026, 10, 17, 8, 0).plusSeconds(seed);
+        return Order.builder()
+                .id(new UUID(seed, 0))
+                .customerId(new UUID(1, seed))
+                .shopId(new UUID(2, seed % 10))
+                .status(OrderStatus.PAID)
+                .totalAmount(total)
+                .orderTime(orderTime)
+                .queuePosition(1 + (int) (seed % 20))
+                .estimatedWaitingTime(orderTime.plusMinutes(6))
+                .build();
+    }
+}
@@ -0,0 +1,186 @@
+package com.ioidigital.orderservice.benchmarks;
+
+import com.ioidigital.orderservice.OrderServiceApplication;
+import com.ioidigital.orderservice.dto.OrderCursor;
+import com.ioidigital.orderservice.dto.OrderResponse;
+import com.ioidigital.orderservice.entity.Order;
+import com.ioidigital.orderservice.entity.OrderItem;
+import com.ioidigital.orderservice.repository.OrderItemRepository;
+import com.ioidigital.orderservice.repository.OrderItemSummary;
+import com.ioidigital.orderservice.repository.OrderRepository;
+import com.ioidigital.orderservice.repository.OrderSummary;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * One page of a shop's orders with their lines, read two ways with the same two queries (the
+ * orders, then their lines in one IN query): as managed Order and OrderItem entities in a
+ * read-write transaction, the way list endpoints used to read them, and as the OrderSummary and
+ * OrderItemSummary projections they use now, in a read-only transaction. The difference is what
+ * entity hydration, snapshots and the dirty check at commit cost on top of the database round trips.
+ * <p>
+ * The service runs in the benchmark JVM with the second-level cache off, on an embedded PostgreSQL
+ * that starts empty every trial. Embedded PostgreSQL refuses to run as root; pass
+ * {@code -jvmArgsAppend "-Dbenchmark.db-url=jdbc:postgresql://localhost:5432/orders_db -Dbenchmark.db-user=user"}
+ * (and {@code -Dbenchmark.db-password=...}) to use a local database instead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderListReadBenchmark {
+
+    private static final int ORDERS = 500;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Param({"10", "50", "100"})
+    public int pageSize;
+
+    private EmbeddedPostgres database;
+    private ConfigurableApplicationContext service;
+    private EntityManager entityManager;
+    private OrderRepository orderRepository;
+    private OrderItemRepository orderItemRepository;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private UUID shopId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String dbUrl = System.getProperty("benchmark.db-url");
+        String dbUser = System.getProperty("benchmark.db-user", "user");
+        if (dbUrl == null) {
+            database = EmbeddedPostgres.builder().start();
+            dbUrl = database.getJdbcUrl("postgres", "postgres");
+            dbUser = "postgres";
+        }
+        service = new SpringApplicationBuilder(OrderServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--spring.datasource.url=" + dbUrl,
+                        "--spring.datasource.username=" + dbUser,
+                        "--spring.datasource.password=" + System.getProperty("benchmark.db-password", ""),
+                        // Would add region writes to the entity path only
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "--order.outbox.relay.enabled=false");
+        entityManager = service.getBean(EntityManager.class);
+        orderRepository = service.getBean(OrderRepository.class);
+        orderItemRepository = service.getBean(OrderItemRepository.class);
+        PlatformTransactionManager transactionManager = service.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        shopId = UUID.randomUUID();
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (service != null) {
+            service.close();
+        }
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    @Benchmark
+    public List<OrderResponse> entities() {
+        return readWrite.execute(status -> {
+            List<Order> orders = entityManager.createQuery("SELECT o FROM Order o WHERE o.shopId = :shopId "
+                            + "ORDER BY o.orderTime DESC, o.id DESC", Order.class)
+                    .setParameter("shopId", shopId)
+                    .setMaxResults(pageSize)
+                    .getResultList();
+            Map<UUID, List<OrderItem>> itemsByOrderId = entityManager.createQuery("SELECT i FROM OrderItem i "
+                            + "WHERE i.orderId IN :orderIds AND i.orderTime BETWEEN :from AND :to", OrderItem.class)
+                    .setParameter("orderIds", orders.stream().map(Order::getId).collect(Collectors.toSet()))
+                    .setParameter("from", orders.stream().map(Order::getOrderTime).min(Comparator.naturalOrder()).orElseThrow())
+                    .setParameter("to", orders.stream().map(Order::getOrderTime).max(Comparator.naturalOrder()).orElseThrow())
+                    .getResultStream()
+                    .collect(Collectors.groupingBy(OrderItem::getOrderId));
+            return orders.stream()
+                    .map(order -> OrderResponse.fromOrderEntityToOrderResponse(order,
+                            itemsByOrderId.getOrDefault(order.getId(), List.of())))
+                    .toList();
+        });
+    }
+
+    @Benchmark
+    public List<OrderResponse> projections() {
+        return readOnly.execute(status -> {
+            List<OrderSummary> orders = orderRepository.findByShopIdBefore(shopId,
+                    OrderCursor.START.getOrderTime(), OrderCursor.START.getId(), Limit.of(pageSize));
+            Set<UUID> orderIds = orders.stream().map(OrderSummary::id).collect(Collectors.toSet());
+            Map<UUID, List<OrderItemSummary>> itemsByOrderId = orderItemRepository.findByOrderIdInAndOrderTimeBetween(orderIds,
+                            orders.stream().map(OrderSummary::orderTime).min(Comparator.naturalOrder()).orElseThrow(),
+                            orders.stream().map(OrderSummary::orderTime).max(Comparator.naturalOrder()).orElseThrow())
+                    .stream()
+                    .collect(Collectors.groupingBy(OrderItemSummary::orderId));
+            return orders.stream()
+                    .map(order -> OrderResponse.fromOrderSummary(order,
+                            itemsByOrderId.getOrDefault(order.id(), List.of())))
+                    .toList();
+        });
+    }
+
+    // One shop's recent orders; random ids, so a reused database keeps working
+    private void seed() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<Order> orders = new ArrayList<>(ORDERS);
+        List<OrderItem> items = new ArrayList<>(ORDERS * ITEMS_PER_ORDER);
+        for (int i = 0; i < ORDERS; i++) {
+            List<OrderItem> orderItems = OrderFixtures.items(ITEMS_PER_ORDER, i);
+            Order order = OrderFixtures.order(orderItems, i);
+            order.setId(UUID.randomUUID());
+            order.setShopId(shopId);
+            order.setOrderTime(now.minusSeconds(i));
+            order.setEstimatedWaitingTime(order.getOrderTime().plusMinutes(6));
+            for (OrderItem item : orderItems) {
+                item.setId(UUID.randomUUID());
+                item.setOrderId(order.getId());
+                item.setOrderTime(order.getOrderTime());
+            }
+            orders.add(order);
+            items.addAll(orderItems);
+        }
+        readWrite.executeWithoutResult(status -> {
+            orderRepository.saveAll(orders);
+            orderItemRepository.saveAll(items);
+        });
+    }
+}
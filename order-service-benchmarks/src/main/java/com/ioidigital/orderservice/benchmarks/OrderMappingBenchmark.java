@@ -0,0 +1,71 @@
+package com.ioidigital.orderservice.benchmarks;
+
+import com.ioidigital.orderservice.dto.OrderItemResponse;
+import com.ioidigital.orderservice.dto.OrderResponse;
+import com.ioidigital.orderservice.entity.Order;
+import com.ioidigital.orderservice.entity.OrderItem;
+import com.ioidigital.orderservice.repository.OrderItemSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to response mapping, run once per order on every create, status update and detail
+ * load, and once per listed order on list pages.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderMappingBenchmark {
+
+    // Typical orders have one to three lines; office orders run much longer
+    @Param({"1", "3", "20"})
+    public int itemCount;
+
+    private Order order;
+    private List<OrderItem> items;
+
+    @Setup
+    public void setUp() {
+        items = OrderFixtures.items(itemCount, 42);
+        order = OrderFixtures.order(items, 42);
+    }
+
+    @Benchmark
+    public OrderResponse fromOrderEntityToOrderResponse() {
+        return OrderResponse.fromOrderEntityToOrderResponse(order, items);
+    }
+
+    @Benchmark
+    public void orderItemResponseFrom(Blackhole blackhole) {
+        for (OrderItem orderItem : items) {
+            blackhole.consume(OrderItemResponse.from(orderItem));
+        }
+    }
+
+    // Lines of a list page, projected per row: each summary is built here, so its total is derived
+    // every time rather than read back
+    @Benchmark
+    public void itemTotalPrice(Blackhole blackhole) {
+        for (OrderItem orderItem : items) {
+            OrderItemSummary line = new OrderItemSummary(orderItem.getOrderId(), orderItem.getMenuItemId(),
+                    orderItem.getItemName(), orderItem.getQuantity(), orderItem.getUnitPrice());
+            blackhole.consume(line.totalPrice());
+        }
+    }
+}
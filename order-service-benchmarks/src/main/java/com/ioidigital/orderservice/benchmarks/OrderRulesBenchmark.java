@@ -0,0 +1,79 @@
+package com.ioidigital.orderservice.benchmarks;
+
+import com.ioidigital.orderservice.entity.Money;
+import com.ioidigital.orderservice.entity.OrderItem;
+import com.ioidigital.orderservice.entity.OrderStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order total accumulation, run on every create, and status transition checks, run for every
+ * order of a status update.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderRulesBenchmark {
+
+    private OrderStatus[] statuses;
+
+    @Setup
+    public void setUp() {
+        statuses = OrderStatus.values();
+    }
+
+    // Lines are built fresh, as an order being created has them, so every line total is computed
+    @Benchmark
+    public Money totalOf(Items items) {
+        List<OrderItem> lines = new ArrayList<>(items.items.size());
+        for (OrderItem item : items.items) {
+            lines.add(OrderItem.builder()
+                    .menuItemId(item.getMenuItemId())
+                    .itemName(item.getItemName())
+                    .quantity(item.getQuantity())
+                    .unitPrice(item.getUnitPrice())
+                    .build());
+        }
+        return OrderItem.totalOf(lines);
+    }
+
+    // Every current/new status pair, allowed ones (null) and rejections (message built) alike
+    @Benchmark
+    public void transitionRejection(Blackhole blackhole) {
+        for (OrderStatus current : statuses) {
+            for (OrderStatus next : statuses) {
+                blackhole.consume(current.transitionRejection(next));
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Items {
+        @Param({"1", "3", "20"})
+        public int itemCount;
+
+        private List<OrderItem> items;
+
+        @Setup
+        public void setUp() {
+            items = OrderFixtures.items(itemCount, 42);
+        }
+    }
+}
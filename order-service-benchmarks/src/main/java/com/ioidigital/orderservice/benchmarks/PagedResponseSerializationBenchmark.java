@@ -0,0 +1,74 @@
+package com.ioidigital.orderservice.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ioidigital.orderservice.dto.OrderResponse;
+import com.ioidigital.orderservice.dto.PagedResponse;
+import com.ioidigital.orderservice.entity.Order;
+import com.ioidigital.orderservice.entity.OrderItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON encoding of a list page, the last step of every list endpoint. The mapper is built the
+ * way Spring MVC builds its own, so dates and numbers are written as the API writes them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PagedResponseSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int pageSize;
+
+    private ObjectWriter writer;
+    private PagedResponse<OrderResponse> page;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructParametricType(PagedResponse.class, OrderResponse.class));
+
+        List<OrderResponse> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            List<OrderItem> items = OrderFixtures.items(1 + i % 3, i);
+            Order order = OrderFixtures.order(items, i);
+            content.add(OrderResponse.fromOrderEntityToOrderResponse(order, items));
+        }
+        page = PagedResponse.<OrderResponse>builder()
+                .content(content)
+                .page(0)
+                .size(pageSize)
+                .totalElements(10_000)
+                .totalPages(10_000 / pageSize)
+                .first(true)
+                .last(false)
+                .hasNext(true)
+                .hasPrevious(false)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] writePage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,133 @@
+package com.ioidigital.orderservice.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Keeps a fixed number of clients busy: each sends its next request as soon as the previous one
+ * completes, so the service always has that many requests in flight. This is the load that piles
+ * up threads behind the database and the shop and menu clients, and what the thread modes are
+ * compared under. Unlike {@link OpenModelDriver} the clients slow down with the service, so the
+ * throughput a step reaches is the service's capacity at that concurrency, and latency is measured
+ * from each actual send.
+ * <p>
+ * The clients are callbacks on the HTTP client's async API, not threads, so thousands of them
+ * cost the generator little.
+ */
+final class ClosedModelDriver {
+
+    // Microseconds, up to one minute, three significant digits
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final MorningRush scenario;
+    private final long seed;
+
+    ClosedModelDriver(HttpClient httpClient, MorningRush scenario, long seed) {
+        this.httpClient = httpClient;
+        this.scenario = scenario;
+        this.seed = seed;
+    }
+
+    StepResult run(int clients, Duration duration) {
+        Map<Endpoint, Recorder> latencies = new EnumMap<>(Endpoint.class);
+        Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            latencies.put(endpoint, new Recorder(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(endpoint, new LongAdder());
+        }
+        AtomicInteger running = new AtomicInteger(clients);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        for (int client = 0; client < clients; client++) {
+            new Client(new Random(seed + client), end, latencies, errors, running).next();
+        }
+
+        long drainDeadline = end + DRAIN_TIMEOUT.toNanos();
+        while (running.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        Map<Endpoint, OpenModelDriver.EndpointResult> results = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            results.put(endpoint, new OpenModelDriver.EndpointResult(latencies.get(endpoint).getIntervalHistogram(),
+                    errors.get(endpoint).sum()));
+        }
+        return new StepResult(clients, elapsed, running.get(), results);
+    }
+
+    // One client's loop; each completed request sends the next until the step ends
+    private final class Client {
+        private final Random random;
+        private final long end;
+        private final Map<Endpoint, Recorder> latencies;
+        private final Map<Endpoint, LongAdder> errors;
+        private final AtomicInteger running;
+
+        Client(Random random, long end, Map<Endpoint, Recorder> latencies, Map<Endpoint, LongAdder> errors,
+               AtomicInteger running) {
+            this.random = random;
+            this.end = end;
+            this.latencies = latencies;
+            this.errors = errors;
+            this.running = running;
+        }
+
+        void next() {
+            long sentAt = System.nanoTime();
+            if (sentAt >= end) {
+                running.decrementAndGet();
+                return;
+            }
+            MorningRush.ScenarioRequest request = scenario.request(Endpoint.pick(random.nextDouble()), random);
+            httpClient.sendAsync(request.httpRequest(), HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, failure) -> {
+                        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sentAt);
+                        latencies.get(request.endpoint()).recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+                        if (failure != null || response.statusCode() >= 400) {
+                            errors.get(request.endpoint()).increment();
+                        }
+                        if (response != null) {
+                            scenario.onResponse(request, response);
+                        }
+                        next();
+                    });
+        }
+    }
+
+    record StepResult(int clients, Duration elapsed, int unfinished,
+                      Map<Endpoint, OpenModelDriver.EndpointResult> endpoints) {
+
+        long completed() {
+            return endpoints.values().stream().mapToLong(result -> result.latencyMicros().getTotalCount()).sum();
+        }
+
+        double throughput() {
+            return completed() / (elapsed.toNanos() / 1e9);
+        }
+
+        long errors() {
+            return endpoints.values().stream().mapToLong(OpenModelDriver.EndpointResult::errors).sum();
+        }
+
+        // All endpoints together
+        Histogram latencyMicros() {
+            Histogram all = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+            endpoints.values().forEach(result -> all.add(result.latencyMicros()));
+            return all;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.ioidigital.orderservice.loadtest;
+
+/**
+ * The requests of the morning rush mix, with their share of the traffic: customers polling their
+ * order far more often than anyone places one.
+ */
+enum Endpoint {
+    ORDER_DETAILS("GET /api/v1/orders/{orderId}", 0.70),
+    CREATE_ORDER("POST /api/v1/orders", 0.20),
+    UPDATE_STATUS("PATCH /api/v1/orders/{orderId}/status", 0.05),
+    SHOP_ORDERS("GET /api/v1/orders/shops/{shopId}", 0.05);
+
+    private final String label;
+    private final double share;
+
+    Endpoint(String label, double share) {
+        this.label = label;
+        this.share = share;
+    }
+
+    String label() {
+        return label;
+    }
+
+    double share() {
+        return share;
+    }
+
+    // Maps a uniform sample in [0, 1) to an endpoint according to the shares
+    static Endpoint pick(double sample) {
+        double cumulative = 0;
+        for (Endpoint endpoint : values()) {
+            cumulative += endpoint.share;
+            if (sample < cumulative) {
+                return endpoint;
+            }
+        }
+        return SHOP_ORDERS;
+    }
+}
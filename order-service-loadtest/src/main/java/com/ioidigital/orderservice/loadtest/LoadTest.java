@@ -0,0 +1,267 @@
+package com.ioidigital.orderservice.loadtest;
+
+import com.ioidigital.orderservice.OrderServiceApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Steps order-service through increasing arrival rates of the morning rush mix and reports
+ * p50/p99/p99.9 per endpoint for each step, to find the rate at which latency starts to climb.
+ * With {@code --clients} it steps through numbers of concurrent clients instead (closed model,
+ * see {@link ClosedModelDriver}) and reports the throughput and latency each one reached.
+ * <p>
+ * {@code --thread-modes=platform,virtual} runs the whole test once per thread mode of the
+ * in-process service, one after the other on the same database, and ends with a side-by-side
+ * summary. The virtual mode is the service's virtual-threads profile and needs a Java 21+ runtime.
+ * <p>
+ * Without {@code --target} the service is started in this JVM, on an embedded PostgreSQL (started
+ * from binaries shipped as a Maven artifact) unless {@code --db-url} points at a local one, so a run
+ * needs no network or installed services. The embedded database starts empty every run.
+ * Generator and service then share the machine's CPUs; for numbers closer to production, run the
+ * service on its own host and pass {@code --target}.
+ * <p>
+ * Options ({@code --name=value}):
+ * <ul>
+ *     <li>{@code rates}: requests per second per step, default {@code 25,50,100,200,400}</li>
+ *     <li>{@code clients}: concurrent clients per step, e.g. {@code 250,1000,2000}; replaces {@code rates}</li>
+ *     <li>{@code thread-modes}: {@code platform} (default), {@code virtual} or both, comma separated</li>
+ *     <li>{@code step-duration}: default {@code PT30S}; {@code warmup}: at the first rate, default {@code PT15S}</li>
+ *     <li>{@code p99-slo}: the p99 every endpoint must stay under, default {@code PT0.2S}; rate steps only</li>
+ *     <li>{@code target}: base URL of a running instance</li>
+ *     <li>{@code db-url}, {@code db-user}, {@code db-password}: database of the in-process service</li>
+ *     <li>{@code report-dir}: also write each step's full percentile distribution per endpoint (.hgrm)</li>
+ *     <li>{@code max-outstanding}: in-flight requests before new ones are dropped, default 2000; rate steps only</li>
+ *     <li>{@code seed}: random seed of the arrival times and request mix, default 1</li>
+ * </ul>
+ */
+public class LoadTest {
+
+    private static final String MIX = "70% order details, 20% order creation, 5% status changes, 5% shop listings";
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        List<String> threadModes = Arrays.stream(options.getOrDefault("thread-modes", "platform").split(","))
+                .map(String::trim)
+                .toList();
+        for (String threadMode : threadModes) {
+            if (!threadMode.equals("platform") && !threadMode.equals("virtual")) {
+                throw new IllegalArgumentException("Unknown thread mode: " + threadMode);
+            }
+        }
+        if (options.containsKey("target") && options.containsKey("thread-modes")) {
+            throw new IllegalArgumentException("--thread-modes starts the service in this JVM; set the mode of a --target instance where it runs");
+        }
+        if (threadModes.contains("virtual") && Runtime.version().feature() < 21) {
+            throw new IllegalArgumentException("The virtual thread mode needs a Java 21+ runtime, this is Java " + Runtime.version());
+        }
+
+        EmbeddedPostgres database = null;
+        if (!options.containsKey("target") && !options.containsKey("db-url")) {
+            database = EmbeddedPostgres.builder().start();
+            options.put("db-url", database.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true");
+            options.put("db-user", "postgres");
+        }
+        ExecutorService responses = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "loadtest-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(responses)
+                .build();
+
+        List<String> summary = new ArrayList<>();
+        try {
+            for (String threadMode : threadModes) {
+                ConfigurableApplicationContext service = null;
+                URI target;
+                if (options.containsKey("target")) {
+                    target = URI.create(options.get("target"));
+                } else {
+                    service = startService(options, threadMode);
+                    int port = ((WebServerApplicationContext) service).getWebServer().getPort();
+                    target = URI.create("http://localhost:" + port);
+                }
+                try {
+                    System.out.printf("%nTarget %s (%s threads), mix %s%n", target, threadMode, MIX);
+                    MorningRush scenario = new MorningRush(target);
+                    if (options.containsKey("clients")) {
+                        summary.addAll(runClientSteps(options, threadMode, new ClosedModelDriver(httpClient, scenario, seed(options))));
+                    } else {
+                        summary.add(threadMode + ": " + runRateSteps(options, new OpenModelDriver(httpClient, scenario,
+                                Integer.parseInt(options.getOrDefault("max-outstanding", "2000")), seed(options))));
+                    }
+                } finally {
+                    if (service != null) {
+                        service.close();
+                    }
+                }
+            }
+            System.out.println();
+            if (options.containsKey("clients")) {
+                System.out.printf("%-10s %8s %10s %9s %9s %9s %8s%n", "threads", "clients", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "errors");
+            }
+            summary.forEach(System.out::println);
+        } finally {
+            responses.shutdownNow();
+            if (database != null) {
+                database.close();
+            }
+        }
+    }
+
+    // Steps through the arrival rates until one misses the p99 target; returns the verdict
+    private static String runRateSteps(Map<String, String> options, OpenModelDriver driver) throws IOException {
+        double[] rates = Arrays.stream(options.getOrDefault("rates", "25,50,100,200,400").split(","))
+                .mapToDouble(rate -> Double.parseDouble(rate.trim()))
+                .toArray();
+        Duration stepDuration = Duration.parse(options.getOrDefault("step-duration", "PT30S"));
+        Duration warmup = Duration.parse(options.getOrDefault("warmup", "PT15S"));
+        long sloMicros = Duration.parse(options.getOrDefault("p99-slo", "PT0.2S")).toNanos() / 1000;
+        Path reportDir = options.containsKey("report-dir") ? Path.of(options.get("report-dir")) : null;
+
+        System.out.printf("Warming up at %.0f req/s for %ss%n", rates[0], warmup.toSeconds());
+        driver.run(rates[0], warmup);
+
+        double sustainable = 0;
+        for (int step = 0; step < rates.length; step++) {
+            OpenModelDriver.StepResult result = driver.run(rates[step], stepDuration);
+            print(step + 1, result, sloMicros);
+            if (reportDir != null) {
+                writeDistributions(reportDir, String.format("rate-%.0f", result.targetRate()), result.endpoints());
+            }
+            boolean withinSlo = result.dropped() == 0 && result.unfinished() == 0
+                    && result.errors() <= result.sent() / 100 && result.maxP99Micros() <= sloMicros;
+            if (!withinSlo) {
+                break;
+            }
+            sustainable = rates[step];
+        }
+        String verdict = sustainable > 0
+                ? String.format("Highest rate with every p99 under %s ms: %.0f req/s (%.0f orders/s)",
+                        millis(sloMicros), sustainable, sustainable * Endpoint.CREATE_ORDER.share())
+                : "No step stayed under the p99 target";
+        System.out.println(verdict);
+        return verdict;
+    }
+
+    // Runs every step of concurrent clients; returns one summary row per step
+    private static List<String> runClientSteps(Map<String, String> options, String threadMode, ClosedModelDriver driver)
+            throws IOException {
+        int[] clients = Arrays.stream(options.get("clients").split(","))
+                .mapToInt(count -> Integer.parseInt(count.trim()))
+                .toArray();
+        Duration stepDuration = Duration.parse(options.getOrDefault("step-duration", "PT30S"));
+        Duration warmup = Duration.parse(options.getOrDefault("warmup", "PT15S"));
+        Path reportDir = options.containsKey("report-dir") ? Path.of(options.get("report-dir")) : null;
+
+        System.out.printf("Warming up with %d clients for %ss%n", clients[0], warmup.toSeconds());
+        driver.run(clients[0], warmup);
+
+        List<String> rows = new ArrayList<>();
+        for (int step = 0; step < clients.length; step++) {
+            ClosedModelDriver.StepResult result = driver.run(clients[step], stepDuration);
+            System.out.printf("%nStep %d: %d clients for %ss, %.1f req/s, completed %d, unfinished %d%n",
+                    step + 1, result.clients(), stepDuration.toSeconds(), result.throughput(), result.completed(),
+                    result.unfinished());
+            printEndpoints(result.endpoints(), Long.MAX_VALUE);
+            if (reportDir != null) {
+                writeDistributions(reportDir, threadMode + "-clients-" + result.clients(), result.endpoints());
+            }
+            Histogram latency = result.latencyMicros();
+            rows.add(String.format("%-10s %8d %10.1f %9s %9s %9s %8d", threadMode, result.clients(), result.throughput(),
+                    millis(latency.getValueAtPercentile(50.0)), millis(latency.getValueAtPercentile(99.0)),
+                    millis(latency.getValueAtPercentile(99.9)), result.errors()));
+        }
+        return rows;
+    }
+
+    private static ConfigurableApplicationContext startService(Map<String, String> options, String threadMode) {
+        Map<String, Object> properties = new HashMap<>();
+        if (threadMode.equals("virtual")) {
+            properties.put("spring.profiles.active", "virtual-threads");
+        }
+        properties.put("server.port", 0);
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        properties.put("spring.datasource.url", options.get("db-url"));
+        properties.put("spring.datasource.username", options.getOrDefault("db-user", "user"));
+        properties.put("spring.datasource.password", options.getOrDefault("db-password", ""));
+        // As command line arguments, so they win over application.yml and environment variables
+        return SpringApplication.run(OrderServiceApplication.class, properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new));
+    }
+
+    private static void print(int step, OpenModelDriver.StepResult result, long sloMicros) {
+        System.out.printf("%nStep %d: target %.0f req/s for %ss, achieved %.1f req/s, sent %d, dropped %d, unfinished %d%n",
+                step, result.targetRate(), result.duration().toSeconds(), result.achievedRate(),
+                result.sent(), result.dropped(), result.unfinished());
+        printEndpoints(result.endpoints(), sloMicros);
+    }
+
+    private static void printEndpoints(Map<Endpoint, OpenModelDriver.EndpointResult> endpoints, long sloMicros) {
+        System.out.printf("%-40s %8s %7s %9s %9s %9s %9s%n", "endpoint", "count", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<Endpoint, OpenModelDriver.EndpointResult> entry : endpoints.entrySet()) {
+            Histogram latency = entry.getValue().latencyMicros();
+            long p99 = latency.getValueAtPercentile(99.0);
+            System.out.printf("%-40s %8d %7d %9s %9s %9s %9s%s%n",
+                    entry.getKey().label(), latency.getTotalCount(), entry.getValue().errors(),
+                    millis(latency.getValueAtPercentile(50.0)), millis(p99),
+                    millis(latency.getValueAtPercentile(99.9)), millis(latency.getMaxValue()),
+                    p99 > sloMicros ? "  over p99 target" : "");
+        }
+    }
+
+    private static void writeDistributions(Path reportDir, String step, Map<Endpoint, OpenModelDriver.EndpointResult> endpoints)
+            throws IOException {
+        Files.createDirectories(reportDir);
+        for (Map.Entry<Endpoint, OpenModelDriver.EndpointResult> entry : endpoints.entrySet()) {
+            Path file = reportDir.resolve(String.format("%s-%s.hgrm",
+                    step, entry.getKey().name().toLowerCase().replace('_', '-')));
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                // Microseconds scaled to milliseconds, readable by the HdrHistogram plotter
+                entry.getValue().latencyMicros().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private static long seed(Map<String, String> options) {
+        return Long.parseLong(options.getOrDefault("seed", "1"));
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.2f", micros / 1000.0);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,150 @@
+package com.ioidigital.orderservice.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Builds the requests of a morning rush against the sample shops and menu items of the mocked
+ * shop and menu clients, and follows the orders it creates: recent orders are polled by their
+ * customers, and staff move them through PREPARING, READY_FOR_PICKUP and COMPLETED.
+ */
+final class MorningRush {
+
+    private static final UUID[] SHOPS = {
+            UUID.fromString("b0000000-0000-0000-0000-000000000001"),
+            UUID.fromString("b0000000-0000-0000-0000-000000000002")};
+    // The available items of the sample menu
+    private static final UUID[] MENU_ITEMS = {
+            UUID.fromString("a0000000-0000-0000-0000-000000000001"),
+            UUID.fromString("a0000000-0000-0000-0000-000000000002"),
+            UUID.fromString("a0000000-0000-0000-0000-000000000003"),
+            UUID.fromString("a0000000-0000-0000-0000-000000000004")};
+    private static final String[] LIFECYCLE = {"PAID", "PREPARING", "READY_FOR_PICKUP", "COMPLETED"};
+    // Customers poll the orders they placed in the last few minutes
+    private static final int RECENT_ORDERS = 500;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI baseUri;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicReferenceArray<UUID> recentOrders = new AtomicReferenceArray<>(RECENT_ORDERS);
+    private final AtomicLong createdOrders = new AtomicLong();
+    private final Queue<OrderProgress> openOrders = new ConcurrentLinkedQueue<>();
+
+    MorningRush(URI baseUri) {
+        this.baseUri = baseUri;
+    }
+
+    /**
+     * Request for the endpoint. Polls and status changes need an order to act on; until orders
+     * exist (or while none is open) the request becomes an order creation instead.
+     */
+    ScenarioRequest request(Endpoint endpoint, Random random) {
+        switch (endpoint) {
+            case ORDER_DETAILS -> {
+                UUID orderId = recentOrder(random);
+                if (orderId != null) {
+                    return new ScenarioRequest(endpoint, get("/api/v1/orders/" + orderId), null);
+                }
+            }
+            case UPDATE_STATUS -> {
+                OrderProgress order = openOrders.poll();
+                if (order != null) {
+                    String body = "{\"status\":\"" + LIFECYCLE[order.step() + 1] + "\"}";
+                    HttpRequest request = builder("/api/v1/orders/" + order.orderId() + "/status")
+                            .method("PATCH", HttpRequest.BodyPublishers.ofString(body))
+                            .build();
+                    return new ScenarioRequest(endpoint, request, order);
+                }
+            }
+            case SHOP_ORDERS -> {
+                UUID shopId = SHOPS[random.nextInt(SHOPS.length)];
+                return new ScenarioRequest(endpoint, get("/api/v1/orders/shops/" + shopId + "?cursor=&size=20"), null);
+            }
+            default -> {
+            }
+        }
+        HttpRequest create = builder("/api/v1/orders")
+                .POST(HttpRequest.BodyPublishers.ofString(orderBody(random)))
+                .build();
+        return new ScenarioRequest(Endpoint.CREATE_ORDER, create, null);
+    }
+
+    // Follows up on a completed request: remembers created orders and moves status changes along
+    void onResponse(ScenarioRequest request, HttpResponse<String> response) {
+        boolean success = response.statusCode() / 100 == 2;
+        if (request.endpoint() == Endpoint.CREATE_ORDER && success) {
+            UUID orderId = orderIdOf(response.body());
+            if (orderId != null) {
+                recentOrders.set((int) (createdOrders.getAndIncrement() % RECENT_ORDERS), orderId);
+                openOrders.add(new OrderProgress(orderId, 0));
+            }
+        } else if (request.endpoint() == Endpoint.UPDATE_STATUS && success) {
+            OrderProgress next = new OrderProgress(request.order().orderId(), request.order().step() + 1);
+            if (next.step() < LIFECYCLE.length - 1) {
+                openOrders.add(next);
+            }
+        }
+    }
+
+    private UUID recentOrder(Random random) {
+        long created = createdOrders.get();
+        if (created == 0) {
+            return null;
+        }
+        return recentOrders.get(random.nextInt((int) Math.min(created, RECENT_ORDERS)));
+    }
+
+    private String orderBody(Random random) {
+        ObjectNode order = objectMapper.createObjectNode();
+        order.put("customerId", UUID.randomUUID().toString());
+        order.put("shopId", SHOPS[random.nextInt(SHOPS.length)].toString());
+        ArrayNode items = order.putArray("items");
+        int lines = 1 + random.nextInt(3);
+        for (int i = 0; i < lines; i++) {
+            items.addObject()
+                    .put("menuItemId", MENU_ITEMS[random.nextInt(MENU_ITEMS.length)].toString())
+                    .put("quantity", 1 + random.nextInt(2));
+        }
+        return order.toString();
+    }
+
+    private UUID orderIdOf(String body) {
+        try {
+            JsonNode orderId = objectMapper.readTree(body).get("orderId");
+            return orderId != null ? UUID.fromString(orderId.asText()) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return builder(path).GET().build();
+    }
+
+    private HttpRequest.Builder builder(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json");
+    }
+
+    // An order waiting for its next status change; step indexes LIFECYCLE
+    record OrderProgress(UUID orderId, int step) {
+    }
+
+    record ScenarioRequest(Endpoint endpoint, HttpRequest httpRequest, OrderProgress order) {
+    }
+}
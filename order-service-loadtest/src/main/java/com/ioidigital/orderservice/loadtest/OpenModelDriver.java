@@ -0,0 +1,127 @@
+package com.ioidigital.orderservice.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at a given arrival rate whatever the service's response times, the way real
+ * customers arrive: exponentially distributed gaps (a Poisson process), each request sent at its
+ * scheduled time without waiting for earlier ones. A closed loop of N clients would slow down
+ * with the service and hide exactly the queueing this is meant to find.
+ * <p>
+ * Latency is measured from the scheduled send time, not the actual one, so time a request spends
+ * waiting behind the generator or the client's connection pool counts against the service (no
+ * coordinated omission). Requests beyond {@code maxOutstanding} in flight are not sent and are
+ * reported as dropped; any drops mean the service could not keep up with the rate.
+ */
+final class OpenModelDriver {
+
+    // Microseconds, up to one minute, three significant digits
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final MorningRush scenario;
+    private final int maxOutstanding;
+    private final Random random;
+
+    OpenModelDriver(HttpClient httpClient, MorningRush scenario, int maxOutstanding, long seed) {
+        this.httpClient = httpClient;
+        this.scenario = scenario;
+        this.maxOutstanding = maxOutstanding;
+        this.random = new Random(seed);
+    }
+
+    StepResult run(double ratePerSecond, Duration duration) {
+        Map<Endpoint, Recorder> latencies = new EnumMap<>(Endpoint.class);
+        Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            latencies.put(endpoint, new Recorder(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(endpoint, new LongAdder());
+        }
+        AtomicInteger outstanding = new AtomicInteger();
+        long dropped = 0;
+        long sent = 0;
+
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long scheduled = start;
+        while (scheduled < end) {
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long intendedStart = scheduled;
+            scheduled += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+
+            if (outstanding.get() >= maxOutstanding) {
+                dropped++;
+                continue;
+            }
+            MorningRush.ScenarioRequest request = scenario.request(Endpoint.pick(random.nextDouble()), random);
+            outstanding.incrementAndGet();
+            sent++;
+            httpClient.sendAsync(request.httpRequest(), HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, failure) -> {
+                        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+                        latencies.get(request.endpoint()).recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+                        if (failure != null || response.statusCode() >= 400) {
+                            errors.get(request.endpoint()).increment();
+                        }
+                        if (response != null) {
+                            scenario.onResponse(request, response);
+                        }
+                        outstanding.decrementAndGet();
+                    });
+        }
+
+        // Requests still in flight belong to this step; wait for them before reading the histograms
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (outstanding.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        Map<Endpoint, EndpointResult> results = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            results.put(endpoint, new EndpointResult(latencies.get(endpoint).getIntervalHistogram(),
+                    errors.get(endpoint).sum()));
+        }
+        return new StepResult(ratePerSecond, duration, elapsed, sent, dropped, outstanding.get(), results);
+    }
+
+    record EndpointResult(Histogram latencyMicros, long errors) {
+    }
+
+    record StepResult(double targetRate, Duration duration, Duration elapsed, long sent, long dropped,
+                      long unfinished, Map<Endpoint, EndpointResult> endpoints) {
+
+        double achievedRate() {
+            long completed = endpoints.values().stream().mapToLong(result -> result.latencyMicros().getTotalCount()).sum();
+            return completed / (duration.toNanos() / 1e9);
+        }
+
+        long errors() {
+            return endpoints.values().stream().mapToLong(EndpointResult::errors).sum();
+        }
+
+        long maxP99Micros() {
+            return endpoints.values().stream()
+                    .mapToLong(result -> result.latencyMicros().getValueAtPercentile(99.0))
+                    .max()
+                    .orElse(0);
+        }
+    }
+}
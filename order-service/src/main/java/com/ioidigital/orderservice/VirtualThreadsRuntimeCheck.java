@@ -0,0 +1,20 @@
+package com.ioidigital.orderservice;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stops a start with the virtual-threads profile on a runtime without virtual threads, where
+ * Spring Boot would quietly keep the platform thread pools.
+ */
+@Component
+@Profile("virtual-threads")
+class VirtualThreadsRuntimeCheck {
+
+    VirtualThreadsRuntimeCheck() {
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("The virtual-threads profile needs a Java 21+ runtime, this is Java "
+                    + Runtime.version());
+        }
+    }
+}
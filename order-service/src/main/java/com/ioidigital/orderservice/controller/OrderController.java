@@ -1,13 +1,25 @@
 package com.ioidigital.orderservice.controller;
 
+import com.ioidigital.orderservice.dto.BatchOrderRequest;
+import com.ioidigital.orderservice.dto.BatchOrderResponse;
+import com.ioidigital.orderservice.dto.BulkStatusUpdateRequest;
+import com.ioidigital.orderservice.dto.BulkStatusUpdateResponse;
+import com.ioidigital.orderservice.dto.OrderCursor;
 import com.ioidigital.orderservice.dto.OrderRequest;
 import com.ioidigital.orderservice.dto.OrderResponse;
 import com.ioidigital.orderservice.dto.OrderStatusUpdateRequest;
 import com.ioidigital.orderservice.dto.PagedResponse;
 import com.ioidigital.orderservice.entity.OrderStatus;
+import com.ioidigital.orderservice.exception.InvalidOrderException;
 import com.ioidigital.orderservice.service.OrderService;
+import com.ioidigital.orderservice.service.export.ExportFormat;
+import com.ioidigital.orderservice.service.export.OrderExporter;
+import com.ioidigital.orderservice.service.idempotency.IdempotentOrderService;
+import com.ioidigital.orderservice.service.idempotency.IdempotentResult;
+import com.ioidigital.orderservice.service.tracking.OrderStatusHub;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -16,37 +28,87 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/orders")
 public class OrderController {
 
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+    // Largest page a listing returns; bounds the rows read and the items loaded per request
+    static final int MAX_PAGE_SIZE = 100;
+
     private final OrderService orderService;
+    private final IdempotentOrderService idempotentOrderService;
+    private final OrderExporter orderExporter;
+    private final OrderStatusHub orderStatusHub;
 
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, IdempotentOrderService idempotentOrderService,
+                           OrderExporter orderExporter, OrderStatusHub orderStatusHub) {
         this.orderService = orderService;
+        this.idempotentOrderService = idempotentOrderService;
+        this.orderExporter = orderExporter;
+        this.orderStatusHub = orderStatusHub;
     }
 
     @PostMapping
     @Operation(summary = "Place a new order",
-            description = "Creates a new order for a customer in a specific shop location.",
+            description = "Creates a new order for a customer in a specific shop location. "
+                    + "Retries carrying the same Idempotency-Key return the original order instead of placing a new one.",
             responses = {
                     @ApiResponse(responseCode = "201", description = "Order placed successfully",
                             content = @Content(mediaType = "application/json",
                                     schema = @Schema(implementation = OrderResponse.class))),
-                    @ApiResponse(responseCode = "400", description = "Invalid order request")
+                    @ApiResponse(responseCode = "400", description = "Invalid order request"),
+                    @ApiResponse(responseCode = "409", description = "Idempotency-Key reused with a different request, "
+                            + "or the original request is still being processed")
             })
-    public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody OrderRequest request) {
+    public ResponseEntity<OrderResponse> createOrder(
+            @Parameter(description = "Client generated key identifying this order attempt across retries")
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody OrderRequest request) {
+        if (idempotencyKey != null) {
+            IdempotentResult result = idempotentOrderService.createOrder(idempotencyKey, request);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.isReplayed()))
+                    .body(result.getResponse());
+        }
+
         OrderResponse response = orderService.createOrder(request);
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Place a batch of orders",
+            description = "Creates up to 1000 orders at once, e.g. catering or scheduled pre-orders. Shops and menu "
+                    + "items are validated once for the whole batch. Each order succeeds or fails on its own; the "
+                    + "results are returned in request order.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Batch processed, see the result of each order",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = BatchOrderResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Malformed batch request")
+            })
+    public ResponseEntity<BatchOrderResponse> createOrders(@Valid @RequestBody BatchOrderRequest request) {
+        BatchOrderResponse response = orderService.createOrders(request);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping
     @Operation(summary = "Get all orders with pagination",
             description = "Retrieves a paginated list of all orders.",
@@ -58,12 +120,20 @@ public class OrderController {
     public ResponseEntity<PagedResponse<OrderResponse>> getAllOrders(
             @Parameter(description = "Page number (0-based)", example = "0")
             @RequestParam(name = "page", defaultValue = "0") int page,
-            @Parameter(description = "Page size", example = "10")
+            @Parameter(description = "Page size, 1 to " + MAX_PAGE_SIZE, example = "10")
             @RequestParam(name = "size", defaultValue = "10") int size,
             @Parameter(description = "Sort by field", example = "orderTime")
             @RequestParam(name = "sortBy", defaultValue = "orderTime") String sortBy,
             @Parameter(description = "Sort direction", example = "desc")
-            @RequestParam(name = "sortDir", defaultValue = "desc") String sortDir) {
+            @RequestParam(name = "sortDir", defaultValue = "desc") String sortDir,
+            @Parameter(description = "Opaque cursor for keyset pagination; pass an empty value for the first page. "
+                    + "Results are then ordered by newest first and page, sortBy and sortDir are ignored")
+            @RequestParam(name = "cursor", required = false) String cursor) {
+
+        checkPageSize(size);
+        if (cursor != null) {
+            return ResponseEntity.ok(orderService.getAllOrders(OrderCursor.decode(cursor), size));
+        }
 
         Sort sort = sortDir.equalsIgnoreCase("desc") ?
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
@@ -73,6 +143,39 @@ public class OrderController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/export")
+    @Operation(summary = "Export a shop's orders",
+            description = "Streams every order a shop placed in [from, to), oldest first, as NDJSON (one order with "
+                    + "its items per line) or CSV (one row per order item). The download starts right away and "
+                    + "the service holds only a small window of rows in memory, so month-long ranges are fine.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Orders streamed",
+                            content = {@Content(mediaType = "application/x-ndjson"), @Content(mediaType = "text/csv")}),
+                    @ApiResponse(responseCode = "400", description = "Invalid range or format")
+            })
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @Parameter(description = "Shop whose orders are exported", required = true)
+            @RequestParam(name = "shopId") UUID shopId,
+            @Parameter(description = "Start of the range (inclusive), ISO date-time", example = "2024-05-01T00:00:00")
+            @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "End of the range (exclusive), ISO date-time", example = "2024-06-01T00:00:00")
+            @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "ndjson or csv", example = "ndjson")
+            @RequestParam(name = "format", defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.fromValue(format);
+        if (!from.isBefore(to)) {
+            throw new InvalidOrderException("Export range is empty: 'from' must be before 'to'");
+        }
+
+        StreamingResponseBody body = out -> orderExporter.export(shopId, from, to, exportFormat, out);
+        String fileName = "orders-" + shopId + "-" + from.toLocalDate() + "." + exportFormat.getFileExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+
     @GetMapping("/{orderId}")
     @Operation(summary = "Get order by ID",
             description = "Retrieves details of a single order by its unique ID.",
@@ -87,6 +190,23 @@ public class OrderController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(value = "/{orderId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream order status changes",
+            description = "Server-Sent Events stream of the order's status changes, instead of polling the order. "
+                    + "The first event (snapshot) carries the order; each change then arrives as a status event. "
+                    + "Reconnect with Last-Event-ID to receive the changes missed in between.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Event stream opened",
+                            content = @Content(mediaType = "text/event-stream")),
+                    @ApiResponse(responseCode = "404", description = "Order not found")
+            })
+    public SseEmitter streamOrderEvents(
+            @PathVariable UUID orderId,
+            @Parameter(description = "Id of the last event received, sent by EventSource when it reconnects")
+            @RequestHeader(name = LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        return orderStatusHub.subscribeToOrder(orderId, lastEventId, () -> orderService.getOrderDetails(orderId));
+    }
+
     @PatchMapping("/{orderId}/status")
     @Operation(summary = "Update order status",
             description = "Updates the status of an order (e.g., CANCELLED, COMPLETED, IN_PROGRESS).",
@@ -104,6 +224,23 @@ public class OrderController {
         return ResponseEntity.ok(response);
     }
 
+    @PatchMapping("/status")
+    @Operation(summary = "Update the status of many orders",
+            description = "Moves up to 500 orders to the same status, e.g. all PREPARING orders of a shop to "
+                    + "READY_FOR_PICKUP. Orders that are missing or cannot make the transition are reported as "
+                    + "rejected; the others are updated.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Updated and rejected orders",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = BulkStatusUpdateResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid status update request")
+            })
+    public ResponseEntity<BulkStatusUpdateResponse> updateOrderStatuses(
+            @Valid @RequestBody BulkStatusUpdateRequest request) {
+        BulkStatusUpdateResponse response = orderService.updateOrderStatuses(request);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/customers/{customerId}")
     @Operation(summary = "Get orders by customer ID with pagination",
             description = "Retrieves a paginated list of orders placed by a specific customer.",
@@ -117,12 +254,20 @@ public class OrderController {
             @PathVariable UUID customerId,
             @Parameter(description = "Page number (0-based)", example = "0")
             @RequestParam(name = "page", defaultValue = "0") int page,
-            @Parameter(description = "Page size", example = "10")
+            @Parameter(description = "Page size, 1 to " + MAX_PAGE_SIZE, example = "10")
             @RequestParam(name = "size", defaultValue = "10") int size,
             @Parameter(description = "Sort by field", example = "orderTime")
             @RequestParam(name = "sortBy", defaultValue = "orderTime") String sortBy,
             @Parameter(description = "Sort direction", example = "desc")
-            @RequestParam(name = "sortDir", defaultValue = "desc") String sortDir) {
+            @RequestParam(name = "sortDir", defaultValue = "desc") String sortDir,
+            @Parameter(description = "Opaque cursor for keyset pagination; pass an empty value for the first page. "
+                    + "Results are then ordered by newest first and page, sortBy and sortDir are ignored")
+            @RequestParam(name = "cursor", required = false) String cursor) {
+
+        checkPageSize(size);
+        if (cursor != null) {
+            return ResponseEntity.ok(orderService.getCustomerOrders(customerId, OrderCursor.decode(cursor), size));
+        }
 
         Sort sort = sortDir.equalsIgnoreCase("desc") ?
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
@@ -132,6 +277,22 @@ public class OrderController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(value = "/customers/{customerId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream a customer's order status changes",
+            description = "Server-Sent Events stream of the status changes of all orders of the customer. "
+                    + "Reconnect with Last-Event-ID to receive the changes missed in between; a resync event "
+                    + "means they could not be replayed and the orders should be reloaded.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Event stream opened",
+                            content = @Content(mediaType = "text/event-stream"))
+            })
+    public SseEmitter streamCustomerOrderEvents(
+            @PathVariable UUID customerId,
+            @Parameter(description = "Id of the last event received, sent by EventSource when it reconnects")
+            @RequestHeader(name = LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        return orderStatusHub.subscribeToCustomer(customerId, lastEventId);
+    }
+
     @GetMapping("/shops/{shopId}")
     @Operation(summary = "Get orders by shop ID with pagination",
             description = "Retrieves a paginated list of orders for a specific shop.",
@@ -145,12 +306,20 @@ public class OrderController {
             @PathVariable UUID shopId,
             @Parameter(description = "Page number (0-based)", example = "0")
             @RequestParam(name = "page", defaultValue = "0") int page,
-            @Parameter(description = "Page size", example = "10")
+            @Parameter(description = "Page size, 1 to " + MAX_PAGE_SIZE, example = "10")
             @RequestParam(name = "size", defaultValue = "10") int size,
             @Parameter(description = "Sort by field", example = "orderTime")
             @RequestParam(name = "sortBy", defaultValue = "orderTime") String sortBy,
             @Parameter(description = "Sort direction", example = "desc")
-            @RequestParam(name = "sortDir", defaultValue = "desc") String sortDir) {
+            @RequestParam(name = "sortDir", defaultValue = "desc") String sortDir,
+            @Parameter(description = "Opaque cursor for keyset pagination; pass an empty value for the first page. "
+                    + "Results are then ordered by newest first and page, sortBy and sortDir are ignored")
+            @RequestParam(name = "cursor", required = false) String cursor) {
+
+        checkPageSize(size);
+        if (cursor != null) {
+            return ResponseEntity.ok(orderService.getOrdersByShop(shopId, OrderCursor.decode(cursor), size));
+        }
 
         Sort sort = sortDir.equalsIgnoreCase("desc") ?
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
@@ -160,6 +329,24 @@ public class OrderController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/shops/{shopId}/active")
+    @Operation(summary = "Get a shop's active orders",
+            description = "Retrieves the shop's paid, preparing and ready-for-pickup orders, oldest first.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Active orders retrieved successfully",
+                            content = @Content(mediaType = "application/json",
+                                    array = @ArraySchema(schema = @Schema(implementation = OrderResponse.class)))),
+                    @ApiResponse(responseCode = "400", description = "Invalid size")
+            })
+    public ResponseEntity<List<OrderResponse>> getActiveShopOrders(
+            @PathVariable UUID shopId,
+            @Parameter(description = "Maximum number of orders, 1 to " + MAX_PAGE_SIZE, example = "50")
+            @RequestParam(name = "size", defaultValue = "50") int size) {
+
+        checkPageSize(size);
+        return ResponseEntity.ok(orderService.getActiveOrdersByShop(shopId, size));
+    }
+
     @GetMapping("/status/{status}")
     @Operation(summary = "Get orders by status with pagination",
             description = "Retrieves a paginated list of orders filtered by status.",
@@ -172,12 +359,20 @@ public class OrderController {
             @PathVariable OrderStatus status,
             @Parameter(description = "Page number (0-based)", example = "0")
             @RequestParam(name = "page", defaultValue = "0") int page,
-            @Parameter(description = "Page size", example = "10")
+            @Parameter(description = "Page size, 1 to " + MAX_PAGE_SIZE, example = "10")
             @RequestParam(name = "size", defaultValue = "10") int size,
             @Parameter(description = "Sort by field", example = "orderTime")
             @RequestParam(name = "sortBy", defaultValue = "orderTime") String sortBy,
             @Parameter(description = "Sort direction", example = "desc")
-            @RequestParam(name = "sortDir", defaultValue = "desc") String sortDir) {
+            @RequestParam(name = "sortDir", defaultValue = "desc") String sortDir,
+            @Parameter(description = "Opaque cursor for keyset pagination; pass an empty value for the first page. "
+                    + "Results are then ordered by newest first and page, sortBy and sortDir are ignored")
+            @RequestParam(name = "cursor", required = false) String cursor) {
+
+        checkPageSize(size);
+        if (cursor != null) {
+            return ResponseEntity.ok(orderService.getOrdersByStatus(status, OrderCursor.decode(cursor), size));
+        }
 
         Sort sort = sortDir.equalsIgnoreCase("desc") ?
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
@@ -187,4 +382,9 @@ public class OrderController {
         return ResponseEntity.ok(response);
     }
 
+    private static void checkPageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new InvalidOrderException("Page size must be between 1 and " + MAX_PAGE_SIZE + ", got " + size);
+        }
+    }
 }
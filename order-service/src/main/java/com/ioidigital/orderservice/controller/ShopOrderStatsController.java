@@ -0,0 +1,42 @@
+package com.ioidigital.orderservice.controller;
+
+import com.ioidigital.orderservice.dto.ShopOrderStatsResponse;
+import com.ioidigital.orderservice.service.stats.ShopOrderStats;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/shops")
+public class ShopOrderStatsController {
+
+    private final ShopOrderStats shopOrderStats;
+
+    @Autowired
+    public ShopOrderStatsController(ShopOrderStats shopOrderStats) {
+        this.shopOrderStats = shopOrderStats;
+    }
+
+    @GetMapping("/{shopId}/orders/stats")
+    @Operation(summary = "Get live order stats of a shop",
+            description = "Open orders per status, and today's order count, revenue and average ticket, for the "
+                    + "shop dashboard. Served from in-memory counters without querying the database; the counters "
+                    + "are reconciled with the database every few minutes.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Shop stats",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = ShopOrderStatsResponse.class)))
+            })
+    public ResponseEntity<ShopOrderStatsResponse> getShopOrderStats(@PathVariable UUID shopId) {
+        return ResponseEntity.ok(shopOrderStats.statsOf(shopId));
+    }
+}
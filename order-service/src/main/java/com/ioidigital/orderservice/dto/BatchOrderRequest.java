@@ -0,0 +1,22 @@
+package com.ioidigital.orderservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOrderRequest {
+    @NotEmpty(message = "Batch must contain at least one order")
+    @Size(max = 1000, message = "Batch cannot contain more than 1000 orders")
+    @Valid
+    private List<OrderRequest> orders;
+}
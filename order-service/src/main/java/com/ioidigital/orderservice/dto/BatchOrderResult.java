@@ -0,0 +1,30 @@
+package com.ioidigital.orderservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one order of a batch; index is its position in the request.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchOrderResult {
+    private int index;
+    private boolean success;
+    private OrderResponse order;
+    private String error;
+
+    public static BatchOrderResult success(int index, OrderResponse order) {
+        return BatchOrderResult.builder().index(index).success(true).order(order).build();
+    }
+
+    public static BatchOrderResult failure(int index, String error) {
+        return BatchOrderResult.builder().index(index).success(false).error(error).build();
+    }
+}
@@ -0,0 +1,28 @@
+package com.ioidigital.orderservice.dto;
+
+import com.ioidigital.orderservice.entity.OrderStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateRequest {
+    @NotEmpty(message = "At least one order ID is required")
+    @Size(max = 500, message = "Cannot update more than 500 orders at once")
+    private List<UUID> orderIds;
+
+    @NotNull(message = "Order status is required")
+    private OrderStatus status;
+
+    private String reason; // Optional reason for status change
+}
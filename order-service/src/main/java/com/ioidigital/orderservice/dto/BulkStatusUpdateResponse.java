@@ -0,0 +1,28 @@
+package com.ioidigital.orderservice.dto;
+
+import com.ioidigital.orderservice.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateResponse {
+    private OrderStatus status;
+    private List<UUID> updated;
+    private List<RejectedOrder> rejected;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RejectedOrder {
+        private UUID orderId;
+        private String reason;
+    }
+}
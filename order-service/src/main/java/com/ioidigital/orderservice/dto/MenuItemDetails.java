@@ -0,0 +1,20 @@
+package com.ioidigital.orderservice.dto;
+
+import com.ioidigital.orderservice.entity.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuItemDetails {
+    private UUID menuItemId;
+    private String name;
+    private Money price;
+    private boolean available;
+}
@@ -0,0 +1,61 @@
+package com.ioidigital.orderservice.dto;
+
+import com.ioidigital.orderservice.exception.InvalidOrderException;
+import com.ioidigital.orderservice.repository.OrderSummary;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset position for cursor pagination, built from the (order_time, id) of the
+ * last order on a page. Pages are always read in order_time DESC, id DESC order.
+ */
+@Value
+public class OrderCursor {
+
+    // Sorts after every real order, so the first page can use the same seek query
+    public static final OrderCursor START = new OrderCursor(
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+            new UUID(-1L, -1L));
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    LocalDateTime orderTime;
+    UUID id;
+
+    public static OrderCursor after(OrderSummary order) {
+        return new OrderCursor(order.orderTime(), order.id());
+    }
+
+    // An empty or missing cursor starts from the newest order
+    public static OrderCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String decoded = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf('|');
+            if (separator < 0) {
+                throw new InvalidOrderException("Invalid cursor: " + cursor);
+            }
+            return new OrderCursor(
+                    LocalDateTime.parse(decoded.substring(0, separator)),
+                    UUID.fromString(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidOrderException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public String encode() {
+        return ENCODER.encodeToString((orderTime + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isStart() {
+        return START.equals(this);
+    }
+}
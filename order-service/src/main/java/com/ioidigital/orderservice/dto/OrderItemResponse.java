@@ -1,9 +1,10 @@
 package com.ioidigital.orderservice.dto;
 
+import com.ioidigital.orderservice.entity.Money;
 import com.ioidigital.orderservice.entity.OrderItem;
+import com.ioidigital.orderservice.repository.OrderItemSummary;
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.util.UUID;
 
 @Data
@@ -11,8 +12,8 @@ public class OrderItemResponse {
     private UUID menuItemId;
     private String itemName;
     private int quantity;
-    private BigDecimal unitPrice;
-    private BigDecimal totalPrice;
+    private Money unitPrice;
+    private Money totalPrice;
 
     public static OrderItemResponse from(OrderItem item) {
         OrderItemResponse response = new OrderItemResponse();
@@ -20,7 +21,17 @@ public class OrderItemResponse {
         response.setItemName(item.getItemName());
         response.setQuantity(item.getQuantity());
         response.setUnitPrice(item.getUnitPrice());
-        response.setTotalPrice(item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+        response.setTotalPrice(item.getItemTotalPrice());
+        return response;
+    }
+
+    public static OrderItemResponse from(OrderItemSummary item) {
+        OrderItemResponse response = new OrderItemResponse();
+        response.setMenuItemId(item.menuItemId());
+        response.setItemName(item.itemName());
+        response.setQuantity(item.quantity());
+        response.setUnitPrice(item.unitPrice());
+        response.setTotalPrice(item.totalPrice());
         return response;
     }
 }
\ No newline at end of file
@@ -1,10 +1,12 @@
 package com.ioidigital.orderservice.dto;
 
+import com.ioidigital.orderservice.entity.Money;
 import com.ioidigital.orderservice.entity.Order;
 import com.ioidigital.orderservice.entity.OrderItem;
+import com.ioidigital.orderservice.repository.OrderItemSummary;
+import com.ioidigital.orderservice.repository.OrderSummary;
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -17,7 +19,7 @@ public class OrderResponse {
     private UUID shopId;
     private LocalDateTime orderTime;
     private String status;
-    private BigDecimal totalAmount;
+    private Money totalAmount;
     private Integer queuePosition;
     private LocalDateTime estimatedWaitingTime;
     private List<OrderItemResponse> items;
@@ -35,4 +37,33 @@ public class OrderResponse {
         response.setItems(orderItems.stream().map(OrderItemResponse::from).collect(Collectors.toList()));
         return response;
     }
+
+    public static OrderResponse fromOrderSummary(OrderSummary order, List<OrderItemSummary> orderItems) {
+        OrderResponse response = new OrderResponse();
+        response.setOrderId(order.id());
+        response.setCustomerId(order.customerId());
+        response.setShopId(order.shopId());
+        response.setOrderTime(order.orderTime());
+        response.setStatus(order.status().name());
+        response.setTotalAmount(order.totalAmount());
+        response.setQueuePosition(order.queuePosition());
+        response.setEstimatedWaitingTime(order.estimatedWaitingTime());
+        response.setItems(orderItems.stream().map(OrderItemResponse::from).collect(Collectors.toList()));
+        return response;
+    }
+
+    // Shallow copy, so per-request fields can be set without touching a cached instance
+    public OrderResponse copy() {
+        OrderResponse copy = new OrderResponse();
+        copy.setOrderId(orderId);
+        copy.setCustomerId(customerId);
+        copy.setShopId(shopId);
+        copy.setOrderTime(orderTime);
+        copy.setStatus(status);
+        copy.setTotalAmount(totalAmount);
+        copy.setQueuePosition(queuePosition);
+        copy.setEstimatedWaitingTime(estimatedWaitingTime);
+        copy.setItems(items);
+        return copy;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.ioidigital.orderservice.dto;
+
+import com.ioidigital.orderservice.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Data of a "status" event on the order event streams
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusEvent {
+    private UUID orderId;
+    private UUID customerId;
+    private UUID shopId;
+    private OrderStatus status;
+    private OrderStatus previousStatus;
+    private LocalDateTime estimatedWaitingTime;
+    private LocalDateTime occurredAt;
+}
@@ -1,5 +1,6 @@
 package com.ioidigital.orderservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
@@ -21,4 +22,7 @@ public class PagedResponse<T> {
     private boolean last;
     private boolean hasNext;
     private boolean hasPrevious;
+    // Only set in cursor mode, where totalElements and totalPages are not computed (-1)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
 }
@@ -0,0 +1,28 @@
+package com.ioidigital.orderservice.dto;
+
+import com.ioidigital.orderservice.entity.Money;
+import com.ioidigital.orderservice.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShopOrderStatsResponse {
+    private UUID shopId;
+    private Map<OrderStatus, Long> openOrders; // Orders not yet completed or cancelled, per status
+    private long openOrdersTotal;
+    private LocalDate day;
+    private long ordersToday; // Placed today and not cancelled
+    private Money revenueToday;
+    private Money averageTicket;
+    private LocalDateTime reconciledAt; // Last time the counters were checked against the database
+}
@@ -0,0 +1,6 @@
+package com.ioidigital.orderservice.entity;
+
+public enum IdempotencyKeyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
@@ -0,0 +1,201 @@
+package com.ioidigital.orderservice.entity;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount in the shop currency, held as a whole number of cents.
+ * <p>
+ * Every shop prices in one currency with two fraction digits, the scale of the {@code numeric(10,2)}
+ * money columns, so no currency code is carried per amount. Amounts with more digits are rounded
+ * half up to the cent, as PostgreSQL does when storing them; so is division. Arithmetic that
+ * overflows a {@code long} throws {@link ArithmeticException} instead of wrapping.
+ * <p>
+ * In JSON an amount is a number with exactly two decimals ({@code 9.00}), like the column it
+ * is read from.
+ */
+@JsonSerialize(using = Money.Serializer.class)
+@JsonDeserialize(using = Money.Deserializer.class)
+public final class Money implements Comparable<Money> {
+
+    public static final int FRACTION_DIGITS = 2;
+    public static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
+    public static final Money ZERO = new Money(0);
+
+    private static final int CENTS_PER_UNIT = 100;
+    // Sign, 17 integer digits, point and two decimals of Long.MIN_VALUE cents
+    private static final int MAX_TEXT_LENGTH = 21;
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofMinor(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    public static Money of(BigDecimal amount) {
+        return ofMinor(amount.setScale(FRACTION_DIGITS, ROUNDING).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Parses a plain decimal such as {@code 4.5} or {@code -12.05}. Inputs with more than two
+     * decimals or an exponent go through {@link BigDecimal} and are rounded.
+     */
+    public static Money parse(CharSequence text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = length > 0 && text.charAt(0) == '-';
+        if (negative || length > 0 && text.charAt(0) == '+') {
+            i++;
+        }
+        long units = 0;
+        int digits = 0;
+        for (; i < length && isDigit(text.charAt(i)); i++, digits++) {
+            units = Math.addExact(Math.multiplyExact(units, 10), text.charAt(i) - '0');
+        }
+        long fraction = 0;
+        int fractionDigits = 0;
+        if (i < length && text.charAt(i) == '.') {
+            for (i++; i < length && isDigit(text.charAt(i)) && fractionDigits < FRACTION_DIGITS + 1; i++) {
+                fraction = fraction * 10 + (text.charAt(i) - '0');
+                fractionDigits++;
+            }
+        }
+        if (i < length || digits + fractionDigits == 0 || fractionDigits > FRACTION_DIGITS) {
+            try {
+                return of(new BigDecimal(text.toString()));
+            } catch (NumberFormatException e) {
+                throw new NumberFormatException("Not an amount: " + text);
+            }
+        }
+        for (; fractionDigits < FRACTION_DIGITS; fractionDigits++) {
+            fraction *= 10;
+        }
+        long cents = Math.addExact(Math.multiplyExact(units, CENTS_PER_UNIT), fraction);
+        return ofMinor(negative ? -cents : cents);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    public long minorUnits() {
+        return cents;
+    }
+
+    public Money plus(Money other) {
+        return other.cents == 0 ? this : ofMinor(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return other.cents == 0 ? this : ofMinor(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money times(int quantity) {
+        return quantity == 1 ? this : ofMinor(Math.multiplyExact(cents, quantity));
+    }
+
+    // Rounded half up to the cent, away from zero for negative amounts
+    public Money dividedBy(long divisor) {
+        long quotient = cents / divisor;
+        long remainder = cents % divisor;
+        if (Math.abs(remainder) * 2 >= Math.abs(divisor)) {
+            quotient += (cents < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return ofMinor(quotient);
+    }
+
+    public boolean isZero() {
+        return cents == 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, FRACTION_DIGITS);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || other instanceof Money money && money.cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        char[] buffer = new char[MAX_TEXT_LENGTH];
+        return new String(buffer, 0, format(buffer));
+    }
+
+    // Writes the plain decimal into the buffer and returns its length
+    private int format(char[] buffer) {
+        // Digits taken off a non-positive value, so Long.MIN_VALUE needs no special case
+        long remaining = cents < 0 ? cents : -cents;
+        int position = buffer.length;
+        for (int digit = 0; digit < FRACTION_DIGITS; digit++) {
+            buffer[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        }
+        buffer[--position] = '.';
+        do {
+            buffer[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        } while (remaining < 0);
+        if (cents < 0) {
+            buffer[--position] = '-';
+        }
+        int length = buffer.length - position;
+        System.arraycopy(buffer, position, buffer, 0, length);
+        return length;
+    }
+
+    // Writes the digits straight to the generator through a per-thread buffer: nothing allocated per amount
+    public static final class Serializer extends JsonSerializer<Money> {
+        private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[MAX_TEXT_LENGTH]);
+
+        @Override
+        public void serialize(Money value, JsonGenerator generator, SerializerProvider serializers) throws IOException {
+            char[] buffer = BUFFER.get();
+            generator.writeNumber(buffer, 0, value.format(buffer));
+        }
+    }
+
+    public static final class Deserializer extends JsonDeserializer<Money> {
+        @Override
+        public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.VALUE_NUMBER_INT) {
+                return ofMinor(Math.multiplyExact(parser.getLongValue(), CENTS_PER_UNIT));
+            }
+            if (token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_STRING) {
+                try {
+                    return parse(parser.getText().trim());
+                } catch (NumberFormatException | ArithmeticException e) {
+                    return (Money) context.handleWeirdStringValue(Money.class, parser.getText(), e.getMessage());
+                }
+            }
+            return (Money) context.handleUnexpectedToken(Money.class, parser);
+        }
+    }
+}
@@ -5,23 +5,34 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.springframework.data.domain.Persistable;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @Entity
 @Table(name = "orders")
+// Second-level cache; status updates written as SQL invalidate their entry (see OrderEntityCache)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Order.CACHE_REGION)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Order {
+public class Order implements Persistable<UUID> {
+    public static final String CACHE_REGION = "orders";
+    public static final String ITEMS_CACHE_REGION = "order-item-lists";
+
+    // Assigned by the application before saving, so inserts can be batched without a round trip
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
     private UUID id;
 
     @Column(name = "customer_id", nullable = false)
@@ -38,7 +49,7 @@ public class Order {
     private OrderStatus status; // Enum: PENDING, PAID, PREPARING, READY_FOR_PICKUP, COMPLETED, CANCELLED
 
     @Column(name = "total_amount", nullable = false, precision = 10, scale = 2)
-    private BigDecimal totalAmount;
+    private Money totalAmount;
 
     @Column(name = "queue_position")
     private Integer queuePosition;
@@ -54,4 +65,45 @@ public class Order {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    // Optimistic lock; status updates issued as SQL bump it themselves
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    // Read-only view of the order's lines, kept in the second-level cache as a list of item ids. Lines are
+    // written through OrderItemRepository and never change, so this side never writes order_id. A load
+    // without the order time cannot prune partitions; lookups that have it use findByOrderIdAndOrderTime
+    @OneToMany
+    @JoinColumn(name = "order_id", insertable = false, updatable = false)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ITEMS_CACHE_REGION)
+    @Builder.Default
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private List<OrderItem> items = new ArrayList<>();
+
+    // With assigned ids Spring Data cannot tell new entities apart, so save() would merge (SELECT first)
+    @Transient
+    @Builder.Default
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean isNew = true;
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PrePersist
+    void assignIdIfMissing() {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.isNew = false;
+    }
+
 }
\ No newline at end of file
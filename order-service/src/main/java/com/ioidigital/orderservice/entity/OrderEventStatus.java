@@ -0,0 +1,7 @@
+package com.ioidigital.orderservice.entity;
+
+public enum OrderEventStatus {
+    PENDING,    // Waiting for the relay to deliver it
+    PUBLISHED,  // Delivered to the sink
+    FAILED      // Gave up after the maximum number of attempts; kept for inspection
+}
@@ -0,0 +1,6 @@
+package com.ioidigital.orderservice.entity;
+
+public enum OrderEventType {
+    ORDER_CREATED,          // New order placed and queued
+    ORDER_STATUS_CHANGED    // Order moved to a new status
+}
@@ -1,28 +1,42 @@
 package com.ioidigital.orderservice.entity;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.springframework.data.domain.Persistable;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Entity
 @Table(name = "order_items")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = OrderItem.CACHE_REGION)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class OrderItem {
+public class OrderItem implements Persistable<UUID> {
+    public static final String CACHE_REGION = "order-items";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
     private UUID id;
 
     @Column(name = "order_id", nullable = false)
     private UUID orderId;
 
+    // Copy of the order's time: the partition key, so lookups that know it only touch one partition
+    @Column(name = "order_time", nullable = false)
+    private LocalDateTime orderTime;
+
     @Column(name = "menu_item_id", nullable = false)
     private UUID menuItemId;
 
@@ -30,21 +44,67 @@ public class OrderItem {
     private int quantity;
 
     @Column(name = "price_at_order", nullable = false, precision = 10, scale = 2)
-    private BigDecimal unitPrice;
+    private Money unitPrice;
 
     @Column(name = "item_name", nullable = false)
     private String itemName;
 
-    // Calculated field - not stored in database
+    // Calculated field - not stored in database; computed on first use and kept until price or quantity change
+    @Transient
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Money itemTotalPrice;
+
+    public Money getItemTotalPrice() {
+        if (itemTotalPrice == null) {
+            itemTotalPrice = unitPrice != null && quantity > 0 ? unitPrice.times(quantity) : Money.ZERO;
+        }
+        return itemTotalPrice;
+    }
+
+    // Sum of the line totals, each computed once and kept on its item
+    public static Money totalOf(List<OrderItem> items) {
+        long totalCents = 0;
+        for (OrderItem item : items) {
+            totalCents = Math.addExact(totalCents, item.getItemTotalPrice().minorUnits());
+        }
+        return Money.ofMinor(totalCents);
+    }
+
+    public void setUnitPrice(Money unitPrice) {
+        this.unitPrice = unitPrice;
+        this.itemTotalPrice = null;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+        this.itemTotalPrice = null;
+    }
+
+    // Same assigned-id handling as Order
     @Transient
-    private BigDecimal itemTotalPrice;
+    @Builder.Default
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean isNew = true;
 
-    // Calculate total price when needed
-    public BigDecimal getItemTotalPrice() {
-        if (unitPrice != null && quantity > 0) {
-            return unitPrice.multiply(BigDecimal.valueOf(quantity));
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PrePersist
+    void assignIdIfMissing() {
+        if (id == null) {
+            id = UUID.randomUUID();
         }
-        return BigDecimal.ZERO;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.isNew = false;
     }
 
 }
@@ -1,10 +1,55 @@
 package com.ioidigital.orderservice.entity;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum OrderStatus {
     PENDING,        // Initial state after order placement
     PAID,           // Payment successful
     PREPARING,      // Shop started preparing
     READY_FOR_PICKUP, // Order is ready
     COMPLETED,      // Customer picked up
-    CANCELLED       // Order cancelled by customer or shop
+    CANCELLED;      // Order cancelled by customer or shop
+
+    // Orders in these states hold a place in the shop queue
+    public boolean isQueued() {
+        return this == PENDING || this == PAID || this == PREPARING;
+    }
+
+    // No further status changes once an order is picked up or cancelled
+    public boolean isFinal() {
+        return this == COMPLETED || this == CANCELLED;
+    }
+
+    // Allowed order lifecycle transitions
+    public boolean canTransitionTo(OrderStatus next) {
+        return switch (this) {
+            case PENDING, PAID -> next == PREPARING || next == CANCELLED;
+            case PREPARING -> next == READY_FOR_PICKUP || next == CANCELLED;
+            case READY_FOR_PICKUP -> next == COMPLETED;
+            case COMPLETED, CANCELLED -> false;
+        };
+    }
+
+    // Why an order may not move from this status to the given one, or null if it may
+    public String transitionRejection(OrderStatus next) {
+        if (isFinal()) {
+            return "Cannot change status of a " + name().toLowerCase() + " order";
+        }
+        if (!canTransitionTo(next)) {
+            return "Cannot change status from " + this + " to " + next;
+        }
+        return null;
+    }
+
+    // Statuses an order may move to the given status from; used to guard set-based updates
+    public static Set<OrderStatus> sourcesOf(OrderStatus target) {
+        Set<OrderStatus> sources = EnumSet.noneOf(OrderStatus.class);
+        for (OrderStatus status : values()) {
+            if (status.canTransitionTo(target)) {
+                sources.add(status);
+            }
+        }
+        return sources;
+    }
 }
@@ -14,6 +14,8 @@ public class GlobalExceptionHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(GlobalExceptionHandler.class);
     private static final String RESOURCE_EXCEPTION = "Resource Exception : ";
     private static final String ORDER_EXCEPTION = "ORDER Exception : ";
+    private static final String DOWNSTREAM_EXCEPTION = "Downstream Exception : ";
+    private static final String IDEMPOTENCY_EXCEPTION = "Idempotency Exception : ";
 
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleResourceNotFoundException(ResourceNotFoundException ex) {
@@ -31,5 +33,21 @@ public class GlobalExceptionHandler {
 
     }
 
+    @ExceptionHandler(DownstreamServiceException.class)
+    public ResponseEntity<ErrorResponse> handleDownstreamServiceException(DownstreamServiceException ex) {
+        LOGGER.error(DOWNSTREAM_EXCEPTION + ex.getMessage());
+        final ErrorResponse errorInfo = new ErrorResponse(ex.getMessage());
+        return new ResponseEntity<>(errorInfo, HttpStatus.SERVICE_UNAVAILABLE);
+
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyConflictException(IdempotencyConflictException ex) {
+        LOGGER.error(IDEMPOTENCY_EXCEPTION + ex.getMessage());
+        final ErrorResponse errorInfo = new ErrorResponse(ex.getMessage());
+        return new ResponseEntity<>(errorInfo, HttpStatus.CONFLICT);
+
+    }
+
 
 }
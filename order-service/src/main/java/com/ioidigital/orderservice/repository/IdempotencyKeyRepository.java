@@ -0,0 +1,39 @@
+package com.ioidigital.orderservice.repository;
+
+import com.ioidigital.orderservice.entity.IdempotencyKey;
+import com.ioidigital.orderservice.entity.IdempotencyKeyStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    /**
+     * Completes the claim held with claimToken; returns 0 when the claim was taken over or is
+     * no longer in progress.
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.status = :status, k.orderId = :orderId, k.response = :response, "
+            + "k.expiresAt = :expiresAt WHERE k.key = :key AND k.claimToken = :claimToken "
+            + "AND k.status = com.ioidigital.orderservice.entity.IdempotencyKeyStatus.IN_PROGRESS")
+    int complete(@Param("key") String key, @Param("claimToken") UUID claimToken,
+                 @Param("status") IdempotencyKeyStatus status, @Param("orderId") UUID orderId,
+                 @Param("response") String response, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.key = :key AND k.claimToken = :claimToken "
+            + "AND k.status = com.ioidigital.orderservice.entity.IdempotencyKeyStatus.IN_PROGRESS")
+    int release(@Param("key") String key, @Param("claimToken") UUID claimToken);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.key = :key AND k.expiresAt < :now")
+    int deleteExpired(@Param("key") String key, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt < :now")
+    int deleteAllExpired(@Param("now") LocalDateTime now);
+}
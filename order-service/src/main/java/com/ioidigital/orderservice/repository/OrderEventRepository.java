@@ -0,0 +1,45 @@
+package com.ioidigital.orderservice.repository;
+
+import com.ioidigital.orderservice.entity.OrderEvent;
+import com.ioidigital.orderservice.entity.OrderEventStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface OrderEventRepository extends JpaRepository<OrderEvent, Long> {
+
+    // The first pending event of each shop, when it is due, locked for this relay; rows locked by
+    // another relay are skipped. An event waits while an earlier event of its shop is pending, even
+    // one that relay holds, so a shop is only ever delivered by the relay that locked its first event
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OrderEvent e WHERE e.status = :status " +
+            "AND (e.nextAttemptAt IS NULL OR e.nextAttemptAt <= :now) " +
+            "AND NOT EXISTS (SELECT 1 FROM OrderEvent p WHERE p.shopId = e.shopId " +
+            "AND p.status = :status AND p.sequenceNumber < e.sequenceNumber) " +
+            "ORDER BY e.sequenceNumber")
+    List<OrderEvent> findDeliverable(@Param("status") OrderEventStatus status, @Param("now") LocalDateTime now,
+                                     Limit limit);
+
+    // The pending events of shops whose first event this relay holds, in delivery order. No other
+    // relay reads them while that first event is pending, so the locks are never contended
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<OrderEvent> findByShopIdInAndStatusOrderBySequenceNumber(Collection<UUID> shopIds, OrderEventStatus status,
+                                                                   Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM OrderEvent e WHERE e.status = :status AND e.publishedAt < :before")
+    int deleteByStatusAndPublishedAtBefore(@Param("status") OrderEventStatus status,
+                                           @Param("before") LocalDateTime before);
+}
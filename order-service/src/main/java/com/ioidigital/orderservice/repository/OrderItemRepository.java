@@ -2,10 +2,24 @@ package com.ioidigital.orderservice.repository;
 
 import com.ioidigital.orderservice.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, UUID> {
-    List<OrderItem> findByOrderId(UUID orderId);
-}
\ No newline at end of file
+    // Items are partitioned by their order's time, so passing it confines the lookup to one partition
+    List<OrderItem> findByOrderIdAndOrderTime(UUID orderId, LocalDateTime orderTime);
+
+    // Loads the items of a whole page of orders in a single IN (...) query, searching only the
+    // partitions between the page's oldest and newest order
+    @Query("SELECT new com.ioidigital.orderservice.repository.OrderItemSummary(" +
+            "i.orderId, i.menuItemId, i.itemName, i.quantity, i.unitPrice) FROM OrderItem i " +
+            "WHERE i.orderId IN :orderIds AND i.orderTime BETWEEN :from AND :to")
+    List<OrderItemSummary> findByOrderIdInAndOrderTimeBetween(@Param("orderIds") Collection<UUID> orderIds,
+                                                              @Param("from") LocalDateTime from,
+                                                              @Param("to") LocalDateTime to);
+}
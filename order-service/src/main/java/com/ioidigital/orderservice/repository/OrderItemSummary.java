@@ -0,0 +1,22 @@
+package com.ioidigital.orderservice.repository;
+
+import com.ioidigital.orderservice.entity.Money;
+
+import java.util.UUID;
+
+/**
+ * Read-only line of an order in a list response, selected without loading {@code OrderItem} entities.
+ * The line total is derived once when the line is read, as {@code OrderItem} caches its own.
+ */
+public record OrderItemSummary(UUID orderId,
+                               UUID menuItemId,
+                               String itemName,
+                               int quantity,
+                               Money unitPrice,
+                               Money totalPrice) {
+
+    public OrderItemSummary(UUID orderId, UUID menuItemId, String itemName, int quantity, Money unitPrice) {
+        this(orderId, menuItemId, itemName, quantity, unitPrice,
+                unitPrice != null && quantity > 0 ? unitPrice.times(quantity) : Money.ZERO);
+    }
+}
@@ -3,17 +3,130 @@ package com.ioidigital.orderservice.repository;
 
 import com.ioidigital.orderservice.entity.Order;
 import com.ioidigital.orderservice.entity.OrderStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface OrderRepository extends JpaRepository<Order, UUID> {
 
-    Page<Order> findByCustomerId(UUID customerId, Pageable pageable);
-    Page<Order> findByShopId(UUID shopId, Pageable pageable);
-    Page<Order> findByStatus(OrderStatus status, Pageable pageable);
+    // List endpoints read summaries only; they never modify what they list
+    String SELECT_SUMMARY = "SELECT new com.ioidigital.orderservice.repository.OrderSummary(" +
+            "o.id, o.customerId, o.shopId, o.orderTime, o.status, o.totalAmount, " +
+            "o.queuePosition, o.estimatedWaitingTime) FROM Order o ";
 
-}
\ No newline at end of file
+    @Query(value = SELECT_SUMMARY, countQuery = "SELECT count(o) FROM Order o")
+    Page<OrderSummary> findAllSummaries(Pageable pageable);
+
+    @Query(value = SELECT_SUMMARY + "WHERE o.customerId = :customerId",
+            countQuery = "SELECT count(o) FROM Order o WHERE o.customerId = :customerId")
+    Page<OrderSummary> findByCustomerId(@Param("customerId") UUID customerId, Pageable pageable);
+
+    @Query(value = SELECT_SUMMARY + "WHERE o.shopId = :shopId",
+            countQuery = "SELECT count(o) FROM Order o WHERE o.shopId = :shopId")
+    Page<OrderSummary> findByShopId(@Param("shopId") UUID shopId, Pageable pageable);
+
+    @Query(value = SELECT_SUMMARY + "WHERE o.status = :status",
+            countQuery = "SELECT count(o) FROM Order o WHERE o.status = :status")
+    Page<OrderSummary> findByStatus(@Param("status") OrderStatus status, Pageable pageable);
+
+    // Keyset (cursor) pagination: seek past the last (order_time, id) seen, no count query.
+    // The plain order_time bound repeats the row comparison so Postgres can skip newer partitions.
+
+    @Query(SELECT_SUMMARY + "WHERE o.orderTime <= :orderTime AND (o.orderTime, o.id) < (:orderTime, :id) " +
+            "ORDER BY o.orderTime DESC, o.id DESC")
+    List<OrderSummary> findAllBefore(@Param("orderTime") LocalDateTime orderTime, @Param("id") UUID id, Limit limit);
+
+    @Query(SELECT_SUMMARY + "WHERE o.customerId = :customerId AND o.orderTime <= :orderTime " +
+            "AND (o.orderTime, o.id) < (:orderTime, :id) " +
+            "ORDER BY o.orderTime DESC, o.id DESC")
+    List<OrderSummary> findByCustomerIdBefore(@Param("customerId") UUID customerId,
+                                              @Param("orderTime") LocalDateTime orderTime, @Param("id") UUID id,
+                                              Limit limit);
+
+    @Query(SELECT_SUMMARY + "WHERE o.shopId = :shopId AND o.orderTime <= :orderTime " +
+            "AND (o.orderTime, o.id) < (:orderTime, :id) " +
+            "ORDER BY o.orderTime DESC, o.id DESC")
+    List<OrderSummary> findByShopIdBefore(@Param("shopId") UUID shopId,
+                                          @Param("orderTime") LocalDateTime orderTime, @Param("id") UUID id,
+                                          Limit limit);
+
+    @Query(SELECT_SUMMARY + "WHERE o.status = :status AND o.orderTime <= :orderTime " +
+            "AND (o.orderTime, o.id) < (:orderTime, :id) " +
+            "ORDER BY o.orderTime DESC, o.id DESC")
+    List<OrderSummary> findByStatusBefore(@Param("status") OrderStatus status,
+                                          @Param("orderTime") LocalDateTime orderTime, @Param("id") UUID id,
+                                          Limit limit);
+
+    // A shop's work queue, oldest first. The statuses are literals so Postgres can match the partial
+    // index idx_orders_active_shop_id_order_time, which only holds orders still being worked on
+    @Query(SELECT_SUMMARY + "WHERE o.shopId = :shopId AND o.status IN (" +
+            "com.ioidigital.orderservice.entity.OrderStatus.PAID, " +
+            "com.ioidigital.orderservice.entity.OrderStatus.PREPARING, " +
+            "com.ioidigital.orderservice.entity.OrderStatus.READY_FOR_PICKUP) ORDER BY o.orderTime")
+    List<OrderSummary> findActiveByShopId(@Param("shopId") UUID shopId, Limit limit);
+
+    // Aggregates the live shop counters are reconciled with
+
+    @Query("SELECT new com.ioidigital.orderservice.repository.ShopStatusCount(o.shopId, o.status, count(o)) " +
+            "FROM Order o WHERE o.status IN :statuses GROUP BY o.shopId, o.status")
+    List<ShopStatusCount> countByShopAndStatus(@Param("statuses") Collection<OrderStatus> statuses);
+
+    @Query("SELECT new com.ioidigital.orderservice.repository.ShopSales(o.shopId, count(o), sum(o.totalAmount)) " +
+            "FROM Order o WHERE o.orderTime >= :since " +
+            "AND o.status <> com.ioidigital.orderservice.entity.OrderStatus.CANCELLED GROUP BY o.shopId")
+    List<ShopSales> sumSalesByShopSince(@Param("since") LocalDateTime since);
+
+    // Status changes carry the order time, so they only touch the partitions holding the orders.
+
+    // Set-based compare-and-set: locks the orders (in id order, so concurrent bulk changes cannot
+    // deadlock) and changes those still in one of the allowed source statuses at that moment. Returns
+    // a row per changed order with the status it replaced; orders left alone are missing from it.
+    @Query(value = "WITH previous AS (SELECT id, order_time, status FROM orders " +
+            "WHERE id IN (:ids) AND order_time BETWEEN :from AND :to ORDER BY id FOR UPDATE) " +
+            "UPDATE orders o SET status = :status, updated_at = :updatedAt, version = o.version + 1 " +
+            "FROM previous WHERE o.id = previous.id AND o.order_time = previous.order_time " +
+            "AND o.order_time BETWEEN :from AND :to AND previous.status IN (:fromStatuses) " +
+            "RETURNING o.id AS id, o.customer_id AS customerId, o.shop_id AS shopId, o.order_time AS orderTime, " +
+            "o.status AS status, previous.status AS previousStatus, o.total_amount AS totalAmount, " +
+            "o.queue_position AS queuePosition, o.estimated_pickup_time AS estimatedPickupTime, " +
+            "o.created_at AS createdAt, o.updated_at AS updatedAt, o.version AS version",
+            nativeQuery = true)
+    List<OrderStatusChange> compareAndSetStatuses(@Param("ids") Collection<UUID> ids,
+                                                  @Param("from") LocalDateTime from,
+                                                  @Param("to") LocalDateTime to,
+                                                  @Param("fromStatuses") Collection<String> fromStatuses,
+                                                  @Param("status") String status,
+                                                  @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Current status straight from the table; a query for the entity could return a stale managed copy
+    @Query("SELECT o.status FROM Order o WHERE o.id = :id AND o.orderTime = :orderTime")
+    Optional<OrderStatus> findStatusByIdAndOrderTime(@Param("id") UUID id, @Param("orderTime") LocalDateTime orderTime);
+
+    // Compare-and-set status change in one round trip. The row is locked and re-read first, so the
+    // change applies only if the order is still in one of the allowed source statuses at that moment;
+    // empty if it did not apply. Returns the updated row together with the status it replaced.
+    @Query(value = "WITH previous AS (SELECT id, status FROM orders WHERE id = :id AND order_time = :orderTime FOR UPDATE) " +
+            "UPDATE orders o SET status = :status, updated_at = :updatedAt, version = o.version + 1 " +
+            "FROM previous WHERE o.id = previous.id AND o.order_time = :orderTime AND previous.status IN (:fromStatuses) " +
+            "RETURNING o.id AS id, o.customer_id AS customerId, o.shop_id AS shopId, o.order_time AS orderTime, " +
+            "o.status AS status, previous.status AS previousStatus, o.total_amount AS totalAmount, " +
+            "o.queue_position AS queuePosition, o.estimated_pickup_time AS estimatedPickupTime, " +
+            "o.created_at AS createdAt, o.updated_at AS updatedAt, o.version AS version",
+            nativeQuery = true)
+    Optional<OrderStatusChange> compareAndSetStatus(@Param("id") UUID id,
+                                                    @Param("orderTime") LocalDateTime orderTime,
+                                                    @Param("fromStatuses") Collection<String> fromStatuses,
+                                                    @Param("status") String status,
+                                                    @Param("updatedAt") LocalDateTime updatedAt);
+
+}
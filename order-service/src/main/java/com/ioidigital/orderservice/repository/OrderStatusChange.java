@@ -0,0 +1,62 @@
+package com.ioidigital.orderservice.repository;
+
+import com.ioidigital.orderservice.entity.Money;
+import com.ioidigital.orderservice.entity.Order;
+import com.ioidigital.orderservice.entity.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Row returned by {@link OrderRepository#compareAndSetStatus} and
+ * {@link OrderRepository#compareAndSetStatuses}: the order as updated, plus the status it had just before.
+ */
+public interface OrderStatusChange {
+    UUID getId();
+
+    UUID getCustomerId();
+
+    UUID getShopId();
+
+    LocalDateTime getOrderTime();
+
+    String getStatus();
+
+    String getPreviousStatus();
+
+    // Native query column, so the database type rather than Money
+    BigDecimal getTotalAmount();
+
+    Integer getQueuePosition();
+
+    LocalDateTime getEstimatedPickupTime();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    Long getVersion();
+
+    default OrderStatus previousStatus() {
+        return OrderStatus.valueOf(getPreviousStatus());
+    }
+
+    // Detached order carrying the updated state
+    default Order toOrder() {
+        return Order.builder()
+                .id(getId())
+                .customerId(getCustomerId())
+                .shopId(getShopId())
+                .orderTime(getOrderTime())
+                .status(OrderStatus.valueOf(getStatus()))
+                .totalAmount(Money.of(getTotalAmount()))
+                .queuePosition(getQueuePosition())
+                .estimatedWaitingTime(getEstimatedPickupTime())
+                .createdAt(getCreatedAt())
+                .updatedAt(getUpdatedAt())
+                .version(getVersion())
+                .isNew(false)
+                .build();
+    }
+}
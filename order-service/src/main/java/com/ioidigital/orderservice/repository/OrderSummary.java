@@ -0,0 +1,21 @@
+package com.ioidigital.orderservice.repository;
+
+import com.ioidigital.orderservice.entity.Money;
+import com.ioidigital.orderservice.entity.OrderStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only row of an order list. Selected with a constructor expression, so Hibernate builds it
+ * straight from the result set: no managed entity, no snapshot for dirty checking.
+ */
+public record OrderSummary(UUID id,
+                           UUID customerId,
+                           UUID shopId,
+                           LocalDateTime orderTime,
+                           OrderStatus status,
+                           Money totalAmount,
+                           Integer queuePosition,
+                           LocalDateTime estimatedWaitingTime) {
+}
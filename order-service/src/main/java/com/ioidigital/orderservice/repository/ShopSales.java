@@ -0,0 +1,13 @@
+package com.ioidigital.orderservice.repository;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Orders and revenue of a shop since a point in time, as summed by {@link OrderRepository#sumSalesByShopSince}.
+ * The revenue stays a {@link BigDecimal}: Hibernate does not apply attribute converters to aggregates.
+ */
+public record ShopSales(UUID shopId,
+                        long orders,
+                        BigDecimal revenue) {
+}
@@ -0,0 +1,13 @@
+package com.ioidigital.orderservice.repository;
+
+import com.ioidigital.orderservice.entity.OrderStatus;
+
+import java.util.UUID;
+
+/**
+ * Number of a shop's orders in one status, as counted by {@link OrderRepository#countByShopAndStatus}.
+ */
+public record ShopStatusCount(UUID shopId,
+                              OrderStatus status,
+                              long count) {
+}
@@ -1,6 +1,11 @@
 package com.ioidigital.orderservice.service;
 
 
+import com.ioidigital.orderservice.dto.BatchOrderRequest;
+import com.ioidigital.orderservice.dto.BatchOrderResponse;
+import com.ioidigital.orderservice.dto.BulkStatusUpdateRequest;
+import com.ioidigital.orderservice.dto.BulkStatusUpdateResponse;
+import com.ioidigital.orderservice.dto.OrderCursor;
 import com.ioidigital.orderservice.dto.OrderRequest;
 import com.ioidigital.orderservice.dto.OrderResponse;
 import com.ioidigital.orderservice.dto.OrderStatusUpdateRequest;
@@ -16,10 +21,14 @@ public interface OrderService {
 
     OrderResponse createOrder(OrderRequest request);
 
+    BatchOrderResponse createOrders(BatchOrderRequest request);
+
     OrderResponse getOrderDetails(UUID orderId);
 
     OrderResponse updateOrderStatus(UUID orderId, OrderStatusUpdateRequest request);
 
+    BulkStatusUpdateResponse updateOrderStatuses(BulkStatusUpdateRequest request);
+
     PagedResponse<OrderResponse> getCustomerOrders(UUID customerId, Pageable pageable);
 
     PagedResponse<OrderResponse> getAllOrders(Pageable pageable);
@@ -28,4 +37,14 @@ public interface OrderService {
 
     PagedResponse<OrderResponse> getOrdersByStatus(OrderStatus status, Pageable pageable);
 
+    PagedResponse<OrderResponse> getCustomerOrders(UUID customerId, OrderCursor cursor, int size);
+
+    PagedResponse<OrderResponse> getAllOrders(OrderCursor cursor, int size);
+
+    PagedResponse<OrderResponse> getOrdersByShop(UUID shopId, OrderCursor cursor, int size);
+
+    PagedResponse<OrderResponse> getOrdersByStatus(OrderStatus status, OrderCursor cursor, int size);
+
+    List<OrderResponse> getActiveOrdersByShop(UUID shopId, int size);
+
 }
@@ -0,0 +1,80 @@
+package com.ioidigital.orderservice.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ioidigital.orderservice.dto.OrderResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of assembled order details, keyed by order id.
+ *
+ * Concurrent misses for the same order share a single load: Caffeine runs the loader once
+ * per key and the other callers wait for its result. Writers evict after their transaction
+ * commits; an eviction that races a load in progress waits for it and then removes what it
+ * loaded, so a response read before the commit never outlives it. The TTL only bounds how
+ * long an entry can live if an eviction is ever missed.
+ *
+ * Hits, misses, loads and evictions are published as the {@code cache.*} meters tagged
+ * {@code cache=orderDetails}.
+ */
+@Component
+public class OrderDetailsCache {
+
+    static final String CACHE_NAME = "orderDetails";
+
+    private final Cache<UUID, OrderResponse> cache;
+
+    public OrderDetailsCache(@Value("${order.details-cache.ttl:PT30S}") Duration ttl,
+                             @Value("${order.details-cache.max-size:10000}") long maxSize,
+                             MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the cached details of the order, loading them on a miss. Exceptions thrown by
+     * the loader (e.g. order not found) propagate to every waiting caller and nothing is cached.
+     */
+    public OrderResponse get(UUID orderId, Function<UUID, OrderResponse> loader) {
+        return cache.get(orderId, loader);
+    }
+
+    // The cached details, or null; never loads them
+    public OrderResponse getIfPresent(UUID orderId) {
+        return cache.getIfPresent(orderId);
+    }
+
+    /**
+     * Evicts the order once the current transaction commits, or right away when no
+     * transaction is active. A rolled back write leaves the cached entry in place.
+     */
+    public void evictAfterCommit(UUID orderId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidate(orderId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.invalidate(orderId);
+            }
+        });
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+}
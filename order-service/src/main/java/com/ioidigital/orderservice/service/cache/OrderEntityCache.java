@@ -0,0 +1,49 @@
+package com.ioidigital.orderservice.service.cache;
+
+import com.ioidigital.orderservice.entity.Order;
+import jakarta.persistence.EntityManager;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Keeps Hibernate's second-level cache of orders in step with status changes written as SQL.
+ *
+ * Hibernate invalidates cached orders itself when they are saved through the session or by a bulk
+ * JPQL update, but cannot see a native statement such as the status compare-and-set. For those the
+ * entry is soft-locked in the current transaction, the same way Hibernate handles its own updates:
+ * it is removed right away, nothing can cache the order again while the transaction is open (a
+ * concurrent reader would otherwise put back the row as it was before the commit), and it is
+ * released when the transaction ends, committed or not.
+ */
+@Component
+public class OrderEntityCache {
+
+    private final EntityManager entityManager;
+
+    public OrderEntityCache(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Invalidates the cached order until the current transaction completes. Must be called inside
+     * the transaction that changed the row; does nothing when the second-level cache is disabled.
+     */
+    public void invalidate(UUID orderId) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        SessionFactoryImplementor factory = session.getFactory();
+        EntityPersister persister = factory.getMappingMetamodel().getEntityDescriptor(Order.class);
+        EntityDataAccess access = persister.getCacheAccessStrategy();
+        if (access == null) {
+            return;
+        }
+        Object key = access.generateCacheKey(orderId, persister, factory, session.getTenantIdentifier());
+        SoftLock lock = access.lockItem(session, key, null);
+        session.getActionQueue().registerProcess((success, completed) -> access.unlockItem(completed, key, lock));
+    }
+}
@@ -0,0 +1,280 @@
+package com.ioidigital.orderservice.service.eta;
+
+import com.ioidigital.orderservice.entity.OrderItem;
+import com.ioidigital.orderservice.entity.OrderStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates when waiting orders will be ready from the preparation times the shops actually achieve.
+ * <p>
+ * Every PREPARING to READY_FOR_PICKUP transition is a sample of how long a unit of each menu item
+ * in the order takes; those feed exponentially weighted moving averages per menu item, with a
+ * per-shop average for items not seen yet. An order's work is the sum of its items' unit times.
+ * Each shop also keeps a moving average of its speed: predicted work cleared per second of wall
+ * time between completions while orders were waiting, which covers several baristas working in
+ * parallel or a rush slowing the counter down.
+ * <p>
+ * The estimator keeps the waiting orders of each shop in queue order with the total of their work,
+ * so placing an order is O(1): it is ready after the work queued ahead of it plus its own, at the
+ * shop's speed. Status events update the averages in O(1) as well, and nothing is read from the
+ * database. ETAs are absolute times and stay valid as orders complete on schedule; when a shop's
+ * speed drifts from the speed they were computed with, the ETAs of its waiting orders are
+ * recomputed.
+ * <p>
+ * Statistics live in memory and start over from the defaults after a restart.
+ */
+@Component
+public class OrderEtaEstimator {
+
+    // Clamp for single speed samples, so one odd interval cannot swing the average too far
+    private static final double MIN_SPEED_SAMPLE = 0.1;
+    private static final double MAX_SPEED_SAMPLE = 20.0;
+
+    private final Map<UUID, MovingAverage> unitSecondsByMenuItem = new ConcurrentHashMap<>();
+    private final Map<UUID, ShopStats> shops = new ConcurrentHashMap<>();
+    private final Map<UUID, ShopStats> shopsByWaitingOrder = new ConcurrentHashMap<>();
+    private final double smoothing;
+    private final double defaultUnitSeconds;
+    private final double recomputeThreshold;
+    private final Clock clock;
+
+    @Autowired
+    public OrderEtaEstimator(@Value("${order.eta.smoothing:0.2}") double smoothing,
+                             @Value("${order.eta.default-unit-time:PT2M}") Duration defaultUnitTime,
+                             @Value("${order.eta.recompute-threshold:0.1}") double recomputeThreshold) {
+        this(smoothing, defaultUnitTime, recomputeThreshold, Clock.systemDefaultZone());
+    }
+
+    OrderEtaEstimator(double smoothing, Duration defaultUnitTime, double recomputeThreshold, Clock clock) {
+        this.smoothing = smoothing;
+        this.defaultUnitSeconds = defaultUnitTime.toMillis() / 1000.0;
+        this.recomputeThreshold = recomputeThreshold;
+        this.clock = clock;
+    }
+
+    /**
+     * Adds the order to the back of the shop's queue and returns its estimated ready time. If the
+     * current transaction rolls back, the order is taken out again.
+     */
+    public LocalDateTime orderPlaced(UUID shopId, UUID orderId, List<OrderItem> items) {
+        ShopStats shop = shops.computeIfAbsent(shopId, id -> new ShopStats());
+        Map<UUID, Integer> units = new HashMap<>();
+        for (OrderItem item : items) {
+            units.merge(item.getMenuItemId(), item.getQuantity(), Integer::sum);
+        }
+
+        LocalDateTime eta;
+        synchronized (shop) {
+            double work = workOf(shop, units);
+            eta = now().plus(seconds((shop.queuedWork + work) / shop.speed.value));
+            shop.waiting.put(orderId, new WaitingOrder(units, work, eta));
+            shop.queuedWork += work;
+        }
+        shopsByWaitingOrder.put(orderId, shop);
+        removeOnRollback(orderId);
+        return eta;
+    }
+
+    /**
+     * Applies a status change once the current transaction commits, or right away when no
+     * transaction is active: starting preparation starts the clock, ready orders are learned
+     * from, and orders leaving the queue stop counting towards the orders behind them.
+     */
+    public void statusChangedAfterCommit(UUID orderId, OrderStatus newStatus) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            statusChanged(orderId, newStatus);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                statusChanged(orderId, newStatus);
+            }
+        });
+    }
+
+    /**
+     * Current estimated ready time of a waiting order, or null if the order is not waiting here
+     * (ready, cancelled, or placed before a restart).
+     */
+    public LocalDateTime currentEta(UUID orderId) {
+        ShopStats shop = shopsByWaitingOrder.get(orderId);
+        if (shop == null) {
+            return null;
+        }
+        synchronized (shop) {
+            WaitingOrder order = shop.waiting.get(orderId);
+            return order != null ? order.eta : null;
+        }
+    }
+
+    void statusChanged(UUID orderId, OrderStatus newStatus) {
+        ShopStats shop = shopsByWaitingOrder.get(orderId);
+        if (shop == null) {
+            return;
+        }
+        synchronized (shop) {
+            WaitingOrder order = shop.waiting.get(orderId);
+            if (order == null) {
+                return;
+            }
+            if (newStatus == OrderStatus.PREPARING) {
+                order.preparingSince = now();
+            } else if (!newStatus.isQueued()) {
+                remove(shop, orderId);
+                if (newStatus == OrderStatus.READY_FOR_PICKUP) {
+                    learn(shop, order);
+                } else {
+                    // A cancelled order no longer holds up the ones behind it
+                    recompute(shop, now());
+                }
+            }
+        }
+    }
+
+    private void learn(ShopStats shop, WaitingOrder order) {
+        LocalDateTime now = now();
+        if (order.preparingSince != null) {
+            int unitCount = order.units.values().stream().mapToInt(Integer::intValue).sum();
+            double unitSeconds = secondsBetween(order.preparingSince, now) / Math.max(unitCount, 1);
+            for (UUID menuItemId : order.units.keySet()) {
+                unitSecondsByMenuItem.computeIfAbsent(menuItemId, id -> new MovingAverage(defaultUnitSeconds, true))
+                        .add(unitSeconds, smoothing);
+            }
+            shop.unitSeconds.add(unitSeconds, smoothing);
+        }
+
+        // Wall time between completions only measures speed while orders were waiting all along
+        if (shop.backlogged && shop.lastCompletion != null) {
+            double elapsed = secondsBetween(shop.lastCompletion, now);
+            if (elapsed > 0) {
+                double sample = Math.min(MAX_SPEED_SAMPLE, Math.max(MIN_SPEED_SAMPLE, order.work / elapsed));
+                shop.speed.add(sample, smoothing);
+            }
+        }
+        shop.lastCompletion = now;
+        shop.backlogged = !shop.waiting.isEmpty();
+
+        if (Math.abs(shop.speed.value - shop.etaSpeed) > shop.etaSpeed * recomputeThreshold) {
+            recompute(shop, now);
+        }
+    }
+
+    // New ETAs for every waiting order of the shop at its current speed, in queue order
+    private void recompute(ShopStats shop, LocalDateTime now) {
+        double workAhead = 0;
+        for (WaitingOrder order : shop.waiting.values()) {
+            double remaining = order.work;
+            if (order.preparingSince != null) {
+                remaining = Math.max(0, remaining - secondsBetween(order.preparingSince, now) * shop.speed.value);
+            }
+            workAhead += remaining;
+            order.eta = now.plus(seconds(workAhead / shop.speed.value));
+        }
+        shop.etaSpeed = shop.speed.value;
+    }
+
+    private double workOf(ShopStats shop, Map<UUID, Integer> units) {
+        double work = 0;
+        for (Map.Entry<UUID, Integer> entry : units.entrySet()) {
+            MovingAverage unitSeconds = unitSecondsByMenuItem.get(entry.getKey());
+            work += entry.getValue() * (unitSeconds != null ? unitSeconds.value : shop.unitSeconds.value);
+        }
+        return work;
+    }
+
+    private void remove(ShopStats shop, UUID orderId) {
+        WaitingOrder order = shop.waiting.remove(orderId);
+        if (order != null) {
+            shop.queuedWork = shop.waiting.isEmpty() ? 0 : Math.max(0, shop.queuedWork - order.work);
+        }
+        shopsByWaitingOrder.remove(orderId);
+    }
+
+    private void removeOnRollback(UUID orderId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    ShopStats shop = shopsByWaitingOrder.get(orderId);
+                    if (shop != null) {
+                        synchronized (shop) {
+                            remove(shop, orderId);
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    private static double secondsBetween(LocalDateTime from, LocalDateTime to) {
+        return Duration.between(from, to).toMillis() / 1000.0;
+    }
+
+    private static Duration seconds(double seconds) {
+        return Duration.ofMillis(Math.round(seconds * 1000));
+    }
+
+    // Exponentially weighted moving average; optionally the first sample replaces the initial guess
+    private static final class MovingAverage {
+        private double value;
+        private boolean sampled;
+
+        private MovingAverage(double initial, boolean replaceInitial) {
+            this.value = initial;
+            this.sampled = !replaceInitial;
+        }
+
+        private void add(double sample, double smoothing) {
+            value = sampled ? value + smoothing * (sample - value) : sample;
+            sampled = true;
+        }
+    }
+
+    // Guarded by the instance itself
+    private final class ShopStats {
+        private final MovingAverage unitSeconds = new MovingAverage(defaultUnitSeconds, true);
+        // Predicted work seconds cleared per second; starts as a single barista working to prediction
+        // and moves gradually, since a single interval between completions says little
+        private final MovingAverage speed = new MovingAverage(1.0, false);
+        private final LinkedHashMap<UUID, WaitingOrder> waiting = new LinkedHashMap<>();
+        private double queuedWork;
+        private double etaSpeed = 1.0;
+        private LocalDateTime lastCompletion;
+        private boolean backlogged;
+    }
+
+    private static final class WaitingOrder {
+        private final Map<UUID, Integer> units;
+        private final double work;
+        private LocalDateTime eta;
+        private LocalDateTime preparingSince;
+
+        private WaitingOrder(Map<UUID, Integer> units, double work, LocalDateTime eta) {
+            this.units = units;
+            this.work = work;
+            this.eta = eta;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.ioidigital.orderservice.service.export;
+
+import com.ioidigital.orderservice.exception.InvalidOrderException;
+
+import java.util.Locale;
+
+public enum ExportFormat {
+    // One JSON order (with its items) per line
+    NDJSON("application/x-ndjson", "ndjson"),
+    // One row per order item, order columns repeated; orders without items get one row with empty item columns
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    ExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public static ExportFormat fromValue(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidOrderException("Unsupported export format: " + value + " (expected ndjson or csv)");
+        }
+    }
+}
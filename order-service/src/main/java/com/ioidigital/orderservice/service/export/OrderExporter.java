@@ -0,0 +1,264 @@
+package com.ioidigital.orderservice.service.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ioidigital.orderservice.dto.OrderResponse;
+import com.ioidigital.orderservice.entity.Money;
+import com.ioidigital.orderservice.entity.OrderStatus;
+import com.ioidigital.orderservice.repository.OrderItemSummary;
+import com.ioidigital.orderservice.repository.OrderSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streams the orders a shop placed in a time range, oldest first, straight to an output stream.
+ * <p>
+ * Orders and their items come from a single join read through a forward-only cursor: with
+ * auto-commit off and a fetch size set, the Postgres driver pulls rows in batches of that size
+ * instead of materializing the whole result. Each order is written as soon as its last item row
+ * has been read, so memory stays bounded by the fetch size whatever the range, and the first
+ * bytes go out while the query is still running.
+ */
+@Component
+public class OrderExporter {
+
+    private static final String EXPORT_QUERY = "SELECT o.id, o.customer_id, o.shop_id, o.order_time, o.status, "
+            + "o.total_amount, o.queue_position, o.estimated_pickup_time, "
+            + "i.menu_item_id, i.item_name, i.quantity, i.price_at_order "
+            + "FROM orders o LEFT JOIN order_items i ON i.order_id = o.id AND i.order_time = o.order_time "
+            + "WHERE o.shop_id = ? AND o.order_time >= ? AND o.order_time < ? "
+            + "ORDER BY o.order_time, o.id";
+
+    private static final String CSV_HEADER = "order_id,customer_id,shop_id,order_time,status,total_amount,"
+            + "menu_item_id,item_name,quantity,unit_price,line_total";
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectWriter jsonWriter;
+    private final int fetchSize;
+
+    public OrderExporter(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper,
+                         @Value("${order.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        // The response buffer decides when bytes go out, not every single order
+        this.jsonWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes the shop's orders with {@code from <= order_time < to} to {@code out} and returns how
+     * many orders were written. The stream is flushed but not closed.
+     */
+    public long export(UUID shopId, LocalDateTime from, LocalDateTime to, ExportFormat format, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        OrderRowWriter rowWriter = format == ExportFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+
+        Long exported = transactionTemplate.execute(status -> {
+            try {
+                rowWriter.begin();
+                jdbcTemplate.query((Connection connection) -> {
+                    PreparedStatement statement = connection.prepareStatement(EXPORT_QUERY,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(fetchSize);
+                    statement.setObject(1, shopId);
+                    statement.setTimestamp(2, Timestamp.valueOf(from));
+                    statement.setTimestamp(3, Timestamp.valueOf(to));
+                    return statement;
+                }, rowWriter::row);
+                rowWriter.end();
+                rowWriter.flush();
+                return rowWriter.orders;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return exported != null ? exported : 0;
+    }
+
+    private abstract static class OrderRowWriter {
+        final Writer writer;
+        long orders;
+        private UUID currentOrderId;
+
+        OrderRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        void begin() throws IOException {
+        }
+
+        // Rows arrive grouped by order: one per item, or a single row with null item columns
+        void row(ResultSet rs) throws SQLException {
+            try {
+                UUID orderId = rs.getObject("id", UUID.class);
+                if (!orderId.equals(currentOrderId)) {
+                    if (currentOrderId != null) {
+                        orderCompleted();
+                        if (orders == 1) {
+                            // Send the first order right away instead of waiting for the buffer to fill
+                            flush();
+                        }
+                    }
+                    currentOrderId = orderId;
+                    orders++;
+                }
+                itemRow(rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void end() throws IOException {
+            if (currentOrderId != null) {
+                orderCompleted();
+            }
+        }
+
+        abstract void itemRow(ResultSet rs) throws SQLException, IOException;
+
+        void orderCompleted() throws IOException {
+        }
+
+        void flush() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private final class NdjsonRowWriter extends OrderRowWriter {
+        private final JsonGenerator generator;
+        private OrderSummary order;
+        private final List<OrderItemSummary> items = new ArrayList<>();
+
+        NdjsonRowWriter(Writer writer) {
+            super(writer);
+            try {
+                this.generator = jsonWriter.createGenerator(writer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        void itemRow(ResultSet rs) throws SQLException {
+            if (order == null) {
+                order = new OrderSummary(
+                        rs.getObject("id", UUID.class),
+                        rs.getObject("customer_id", UUID.class),
+                        rs.getObject("shop_id", UUID.class),
+                        rs.getObject("order_time", LocalDateTime.class),
+                        OrderStatus.valueOf(rs.getString("status")),
+                        Money.of(rs.getBigDecimal("total_amount")),
+                        (Integer) rs.getObject("queue_position"),
+                        rs.getObject("estimated_pickup_time", LocalDateTime.class));
+            }
+            UUID menuItemId = rs.getObject("menu_item_id", UUID.class);
+            if (menuItemId != null) {
+                items.add(new OrderItemSummary(order.id(), menuItemId, rs.getString("item_name"),
+                        rs.getInt("quantity"), Money.of(rs.getBigDecimal("price_at_order"))));
+            }
+        }
+
+        @Override
+        void orderCompleted() throws IOException {
+            jsonWriter.writeValue(generator, OrderResponse.fromOrderSummary(order, items));
+            generator.writeRaw('\n');
+            order = null;
+            items.clear();
+        }
+
+        @Override
+        void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static final class CsvRowWriter extends OrderRowWriter {
+
+        CsvRowWriter(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        void begin() throws IOException {
+            writer.write(CSV_HEADER);
+            writer.write("\r\n");
+            writer.flush();
+        }
+
+        @Override
+        void itemRow(ResultSet rs) throws SQLException, IOException {
+            BigDecimal unitPrice = rs.getBigDecimal("price_at_order");
+            int quantity = rs.getInt("quantity");
+            boolean hasItem = !rs.wasNull();
+
+            writer.write(rs.getString("id"));
+            writer.write(',');
+            writer.write(rs.getString("customer_id"));
+            writer.write(',');
+            writer.write(rs.getString("shop_id"));
+            writer.write(',');
+            writer.write(rs.getObject("order_time", LocalDateTime.class).toString());
+            writer.write(',');
+            writer.write(rs.getString("status"));
+            writer.write(',');
+            writer.write(rs.getBigDecimal("total_amount").toPlainString());
+            writer.write(',');
+            if (hasItem) {
+                writer.write(rs.getString("menu_item_id"));
+                writer.write(',');
+                writeQuoted(rs.getString("item_name"));
+                writer.write(',');
+                writer.write(Integer.toString(quantity));
+                writer.write(',');
+                Money price = Money.of(unitPrice);
+                writer.write(price.toString());
+                writer.write(',');
+                writer.write(price.times(quantity).toString());
+            } else {
+                writer.write(",,,,");
+            }
+            writer.write("\r\n");
+        }
+
+        // RFC 4180: quote fields containing separators, quotes or line breaks, doubling inner quotes
+        private void writeQuoted(String value) throws IOException {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.ioidigital.orderservice.service.external;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Latency and errors of a downstream client, per method: {@code downstream.client.requests}
+ * tagged with the client, the method, the outcome and the exception class of failed calls.
+ */
+final class ClientMetrics {
+
+    static final String CLIENT_TIMER = "downstream.client.requests";
+
+    private final MeterRegistry meterRegistry;
+    private final String client;
+
+    ClientMetrics(MeterRegistry meterRegistry, String client) {
+        this.meterRegistry = meterRegistry;
+        this.client = client;
+    }
+
+    <T> T record(String method, Supplier<T> call) {
+        long start = System.nanoTime();
+        String exception = "none";
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            Timer.builder(CLIENT_TIMER)
+                    .description("Calls to other services, by client and method")
+                    .tag("client", client)
+                    .tag("method", method)
+                    .tag("outcome", "none".equals(exception) ? "success" : "error")
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    void record(String method, Runnable call) {
+        record(method, () -> {
+            call.run();
+            return null;
+        });
+    }
+}
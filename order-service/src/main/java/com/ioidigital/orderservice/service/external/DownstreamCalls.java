@@ -0,0 +1,116 @@
+package com.ioidigital.orderservice.service.external;
+
+import com.ioidigital.orderservice.exception.DownstreamServiceException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent calls to other services concurrently on the application task executor (on
+ * virtual threads with the virtual-threads profile), each with its own timeout, and waits for them under one overall deadline. The first failure
+ * stops the wait for the others, so a fan-out costs as long as its slowest call rather than the
+ * sum of all of them.
+ */
+@Component
+public class DownstreamCalls {
+
+    private final AsyncTaskExecutor executor;
+    private final Duration callTimeout;
+    private final Duration deadline;
+
+    public DownstreamCalls(@Qualifier("applicationTaskExecutor") AsyncTaskExecutor executor,
+                           @Value("${order.downstream.call-timeout:PT2S}") Duration callTimeout,
+                           @Value("${order.downstream.deadline:PT3S}") Duration deadline) {
+        this.executor = executor;
+        this.callTimeout = callTimeout;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Starts a call on the executor. The returned future fails with a DownstreamServiceException
+     * once the call timeout passes; a call that fails, times out or is cancelled has its thread
+     * interrupted, so it stops instead of running on unobserved.
+     */
+    public <T> CompletableFuture<T> submit(String callName, Supplier<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            try {
+                result.complete(call.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        CompletableFuture.delayedExecutor(callTimeout.toMillis(), TimeUnit.MILLISECONDS).execute(() ->
+                result.completeExceptionally(new DownstreamServiceException(
+                        callName + " timed out after " + callTimeout.toMillis() + " ms")));
+        result.whenComplete((value, e) -> {
+            if (e != null) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Waits until every call has completed. If one fails, or the deadline passes, the remaining
+     * calls are cancelled and the failure is rethrown as is (or as a DownstreamServiceException).
+     */
+    public void awaitAll(CompletableFuture<?>... calls) {
+        CompletableFuture<Void> allDone = CompletableFuture.allOf(calls);
+        CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+        for (CompletableFuture<?> call : calls) {
+            call.whenComplete((result, e) -> {
+                if (e != null) {
+                    firstFailure.completeExceptionally(e);
+                }
+            });
+        }
+
+        try {
+            CompletableFuture.anyOf(allDone, firstFailure).get(deadline.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            cancelAll(calls);
+            throw new DownstreamServiceException("Downstream calls did not finish within " + deadline.toMillis() + " ms");
+        } catch (ExecutionException e) {
+            cancelAll(calls);
+            Throwable cause = unwrap(e);
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new DownstreamServiceException("Downstream call failed: " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            cancelAll(calls);
+            Thread.currentThread().interrupt();
+            throw new DownstreamServiceException("Interrupted while waiting for downstream calls", e);
+        }
+    }
+
+    private static void cancelAll(CompletableFuture<?>... calls) {
+        for (CompletableFuture<?> call : calls) {
+            call.cancel(true);
+        }
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        Throwable cause = e;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof CancellationException) {
+            return new DownstreamServiceException("Downstream call was cancelled");
+        }
+        return cause;
+    }
+}
@@ -1,42 +1,85 @@
 package com.ioidigital.orderservice.service.external;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ioidigital.orderservice.dto.MenuItemDetails;
+import com.ioidigital.orderservice.entity.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 public class MenuServiceClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MenuServiceClient.class);
+
     // Mock data for demonstration
-    private final Map<UUID, BigDecimal> prices = new HashMap<>();
-    private final Map<UUID, String> names = new HashMap<>();
+    private final Map<UUID, MenuItemDetails> menuItems = new HashMap<>();
+
+    // Hot menu items are served from memory; entries expire so price changes are picked up
+    private final Cache<UUID, MenuItemDetails> menuItemCache;
+    private final ClientMetrics metrics;
+
+    public MenuServiceClient(@Value("${order.menu-client.cache.ttl:PT5M}") Duration cacheTtl,
+                             @Value("${order.menu-client.cache.max-size:500}") long cacheMaxSize,
+                             MeterRegistry meterRegistry) {
+        this.metrics = new ClientMetrics(meterRegistry, "menu-service");
+        this.menuItemCache = Caffeine.newBuilder()
+                .expireAfterWrite(cacheTtl)
+                .maximumSize(cacheMaxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, menuItemCache, "menuItems");
 
-    public MenuServiceClient() {
         // Sample menu items
-        UUID latteId = UUID.fromString("a0000000-0000-0000-0000-000000000001");
-        UUID cappuccinoId = UUID.fromString("a0000000-0000-0000-0000-000000000002");
-        UUID espressoId = UUID.fromString("a0000000-0000-0000-0000-000000000003");
-        UUID croissantId = UUID.fromString("a0000000-0000-0000-0000-000000000004");
-
-        prices.put(latteId, BigDecimal.valueOf(4.50));
-        names.put(latteId, "Latte");
-        prices.put(cappuccinoId, BigDecimal.valueOf(4.00));
-        names.put(cappuccinoId, "Cappuccino");
-        prices.put(espressoId, BigDecimal.valueOf(3.00));
-        names.put(espressoId, "Espresso");
-        prices.put(croissantId, BigDecimal.valueOf(3.20));
-        names.put(croissantId, "Croissant");
+        addMenuItem("a0000000-0000-0000-0000-000000000001", "Latte", Money.parse("4.50"), true);
+        addMenuItem("a0000000-0000-0000-0000-000000000002", "Cappuccino", Money.parse("4.00"), true);
+        addMenuItem("a0000000-0000-0000-0000-000000000003", "Espresso", Money.parse("3.00"), true);
+        addMenuItem("a0000000-0000-0000-0000-000000000004", "Croissant", Money.parse("3.20"), true);
+        addMenuItem("a0000000-0000-0000-0000-000000000005", "Pumpkin Spice Latte", Money.parse("5.20"), false);
+    }
+
+    /**
+     * Returns price, name and availability for the given menu items. Cached items are served
+     * from memory and the rest are fetched with a single bulk lookup. Unknown ids are absent
+     * from the result.
+     */
+    public Map<UUID, MenuItemDetails> getMenuItems(Set<UUID> menuItemIds) {
+        return metrics.record("getMenuItems", () -> menuItemCache.getAll(menuItemIds, this::fetchMenuItems));
+    }
+
+    // Invalidation hooks for menu changes (price updates, items selling out)
+    public void evictMenuItem(UUID menuItemId) {
+        menuItemCache.invalidate(menuItemId);
+    }
+
+    public void evictAllMenuItems() {
+        menuItemCache.invalidateAll();
     }
 
-    public BigDecimal getMenuItemPrice(UUID menuItemId) {
-        System.out.println("ProductServiceClient: Getting price for item " + menuItemId);
-        return prices.get(menuItemId); // Returns null if not found
+    private Map<UUID, MenuItemDetails> fetchMenuItems(Set<? extends UUID> menuItemIds) {
+        LOGGER.debug("MenuServiceClient: Fetching {} menu items", menuItemIds.size());
+        Map<UUID, MenuItemDetails> found = new HashMap<>();
+        for (UUID menuItemId : menuItemIds) {
+            MenuItemDetails menuItem = menuItems.get(menuItemId);
+            if (menuItem != null) {
+                found.put(menuItemId, menuItem);
+            }
+        }
+        return found;
     }
 
-    public String getMenuItemName(UUID menuItemId) {
-        System.out.println("ProductServiceClient: Getting name for item " + menuItemId);
-        return names.get(menuItemId); // Returns null if not found
+    private void addMenuItem(String id, String name, Money price, boolean available) {
+        UUID menuItemId = UUID.fromString(id);
+        menuItems.put(menuItemId, new MenuItemDetails(menuItemId, name, price, available));
     }
 }
@@ -1,43 +1,65 @@
 package com.ioidigital.orderservice.service.external;
 
+import com.ioidigital.orderservice.service.queue.ShopOrderQueue;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class ShopServiceClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShopServiceClient.class);
+
     // Mock data for demonstration - assuming these shops exist and are valid
-    private final ConcurrentHashMap<UUID, AtomicInteger> shopQueues = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, ShopOrderQueue> shopQueues = new ConcurrentHashMap<>();
+    private final ClientMetrics metrics;
+
+    public ShopServiceClient(MeterRegistry meterRegistry) {
+        this.metrics = new ClientMetrics(meterRegistry, "shop-service");
 
-    public ShopServiceClient() {
         // Sample shop IDs
         UUID shop1 = UUID.fromString("b0000000-0000-0000-0000-000000000001");
         UUID shop2 = UUID.fromString("b0000000-0000-0000-0000-000000000002");
-        shopQueues.put(shop1, new AtomicInteger(0)); // Initialize queue size
-        shopQueues.put(shop2, new AtomicInteger(0));
+        shopQueues.put(shop1, new ShopOrderQueue());
+        shopQueues.put(shop2, new ShopOrderQueue());
     }
 
     public boolean doesShopExist(UUID shopId) {
-        System.out.println("ShopServiceClient: Checking if shop exists " + shopId);
-        return shopQueues.containsKey(shopId);
+        LOGGER.debug("ShopServiceClient: Checking if shop exists {}", shopId);
+        return metrics.record("doesShopExist", () -> shopQueues.containsKey(shopId));
     }
 
+    // Returns the 1-based queue position of the order, or null if the shop is unknown
     public Integer addOrderToQueue(UUID shopId, UUID orderId) {
-        System.out.println("ShopServiceClient: Adding order " + orderId + " to shop " + shopId + " queue.");
-        AtomicInteger currentQueueSize = shopQueues.get(shopId);
-        if (currentQueueSize != null) {
-            return currentQueueSize.incrementAndGet(); // Simple increment for demo
-        }
-        return null; // Shop not found
+        LOGGER.debug("ShopServiceClient: Adding order {} to shop {} queue.", orderId, shopId);
+        return metrics.record("addOrderToQueue", () -> {
+            ShopOrderQueue queue = shopQueues.get(shopId);
+            if (queue != null) {
+                return queue.enqueue(orderId);
+            }
+            return null; // Shop not found
+        });
     }
 
     public void removeOrderFromQueue(UUID shopId, UUID orderId) {
-        System.out.println("ShopServiceClient: Removing order " + orderId + " from shop " + shopId + " queue.");
-        AtomicInteger currentQueueSize = shopQueues.get(shopId);
-        if (currentQueueSize != null && currentQueueSize.get() > 0) {
-            currentQueueSize.decrementAndGet();
-        }
+        LOGGER.debug("ShopServiceClient: Removing order {} from shop {} queue.", orderId, shopId);
+        metrics.record("removeOrderFromQueue", () -> {
+            ShopOrderQueue queue = shopQueues.get(shopId);
+            if (queue != null) {
+                queue.remove(orderId);
+            }
+        });
+    }
+
+    // Live position of a waiting order, or null if it is not (or no longer) queued
+    public Integer getQueuePosition(UUID shopId, UUID orderId) {
+        return metrics.record("getQueuePosition", () -> {
+            ShopOrderQueue queue = shopQueues.get(shopId);
+            return queue != null ? queue.positionOf(orderId) : null;
+        });
     }
 }
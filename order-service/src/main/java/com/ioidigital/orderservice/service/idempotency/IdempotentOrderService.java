@@ -0,0 +1,259 @@
+package com.ioidigital.orderservice.service.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ioidigital.orderservice.dto.OrderRequest;
+import com.ioidigital.orderservice.dto.OrderResponse;
+import com.ioidigital.orderservice.entity.IdempotencyKey;
+import com.ioidigital.orderservice.entity.IdempotencyKeyStatus;
+import com.ioidigital.orderservice.exception.IdempotencyConflictException;
+import com.ioidigital.orderservice.exception.InvalidOrderException;
+import com.ioidigital.orderservice.repository.IdempotencyKeyRepository;
+import com.ioidigital.orderservice.service.OrderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Creates orders at most once per Idempotency-Key.
+ * <p>
+ * The first request claims the key by inserting an IN_PROGRESS row in its own short
+ * transaction; the primary key makes the claim exclusive across instances. The order is then
+ * created and the key completed with the serialized response in one transaction, so either
+ * both commit or the key is released for the next retry. A request whose claim was taken over
+ * after its lease expired cannot complete it, and its order is rolled back. Repeats replay the
+ * stored response.
+ * Duplicates arriving while the first request runs wait for it: in-process on its future,
+ * across instances by polling the row.
+ */
+@Service
+public class IdempotentOrderService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdempotentOrderService.class);
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final OrderService orderService;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate claimTransactionTemplate;
+    private final Duration ttl;
+    private final Duration inProgressLease;
+    private final Duration waitTimeout;
+    private final Duration pollInterval;
+
+    // Requests currently being processed by this instance, by key
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotentOrderService(OrderService orderService,
+                                  IdempotencyKeyRepository idempotencyKeyRepository,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${order.idempotency.ttl:PT24H}") Duration ttl,
+                                  @Value("${order.idempotency.in-progress-lease:PT1M}") Duration inProgressLease,
+                                  @Value("${order.idempotency.wait-timeout:PT10S}") Duration waitTimeout,
+                                  @Value("${order.idempotency.poll-interval:PT0.1S}") Duration pollInterval) {
+        this.orderService = orderService;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.claimTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.claimTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttl = ttl;
+        this.inProgressLease = inProgressLease;
+        this.waitTimeout = waitTimeout;
+        this.pollInterval = pollInterval;
+    }
+
+    public IdempotentResult createOrder(String idempotencyKey, OrderRequest request) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidOrderException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = hash(request);
+
+        InFlight mine = new InFlight(requestHash);
+        InFlight leader = inFlight.putIfAbsent(idempotencyKey, mine);
+        if (leader != null) {
+            checkSameRequest(idempotencyKey, leader.requestHash, requestHash);
+            return IdempotentResult.replayed(await(idempotencyKey, leader.response));
+        }
+
+        try {
+            IdempotentResult result = createOnce(idempotencyKey, requestHash, request);
+            mine.response.complete(result.getResponse());
+            return result;
+        } catch (RuntimeException e) {
+            mine.response.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(idempotencyKey, mine);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.idempotency.purge-interval:PT10M}")
+    public void purgeExpired() {
+        try {
+            Integer purged = transactionTemplate.execute(status ->
+                    idempotencyKeyRepository.deleteAllExpired(LocalDateTime.now()));
+            LOGGER.debug("Purged {} expired idempotency keys", purged);
+        } catch (RuntimeException e) {
+            LOGGER.error("Idempotency key purge failed: " + e.getMessage(), e);
+        }
+    }
+
+    private IdempotentResult createOnce(String key, String requestHash, OrderRequest request) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            UUID claimToken = UUID.randomUUID();
+            if (claim(key, requestHash, claimToken)) {
+                return IdempotentResult.created(createAndComplete(key, claimToken, request));
+            }
+
+            Optional<IdempotencyKey> existing = idempotencyKeyRepository.findById(key);
+            if (existing.isEmpty()) {
+                continue; // Released by a failed attempt in the meantime
+            }
+            IdempotencyKey claimed = existing.get();
+            checkSameRequest(key, claimed.getRequestHash(), requestHash);
+            if (claimed.getStatus() == IdempotencyKeyStatus.COMPLETED) {
+                return IdempotentResult.replayed(fromJson(claimed.getResponse()));
+            }
+            if (claimed.getExpiresAt().isBefore(LocalDateTime.now())) {
+                // The instance holding the claim stopped without finishing or releasing it
+                transactionTemplate.executeWithoutResult(status ->
+                        idempotencyKeyRepository.deleteExpired(key, LocalDateTime.now()));
+                continue;
+            }
+            if (System.nanoTime() - deadline > 0) {
+                throw new IdempotencyConflictException(
+                        "A request with Idempotency-Key " + key + " is still being processed");
+            }
+            sleep(pollInterval);
+        }
+    }
+
+    private boolean claim(String key, String requestHash, UUID claimToken) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyKey claim = IdempotencyKey.builder()
+                .key(key)
+                .requestHash(requestHash)
+                .claimToken(claimToken)
+                .status(IdempotencyKeyStatus.IN_PROGRESS)
+                .createdAt(now)
+                .expiresAt(now.plus(inProgressLease))
+                .build();
+        try {
+            claimTransactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.saveAndFlush(claim));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private OrderResponse createAndComplete(String key, UUID claimToken, OrderRequest request) {
+        try {
+            return transactionTemplate.execute(status -> {
+                OrderResponse response = orderService.createOrder(request);
+                int completed = idempotencyKeyRepository.complete(key, claimToken, IdempotencyKeyStatus.COMPLETED,
+                        response.getOrderId(), toJson(response), LocalDateTime.now().plus(ttl));
+                if (completed == 0) {
+                    // The lease expired and another request holds the key now; it creates the order
+                    throw new IdempotencyConflictException(
+                            "Idempotency-Key " + key + " was taken over while this request was processed");
+                }
+                return response;
+            });
+        } catch (RuntimeException e) {
+            // Nothing was created, so a retry with this key should run the request again
+            claimTransactionTemplate.executeWithoutResult(status ->
+                    idempotencyKeyRepository.release(key, claimToken));
+            throw e;
+        }
+    }
+
+    private OrderResponse await(String key, CompletableFuture<OrderResponse> response) {
+        try {
+            return response.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException("A request with Idempotency-Key " + key + " is still being processed");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Interrupted while waiting for Idempotency-Key " + key);
+        }
+    }
+
+    private static void checkSameRequest(String key, String expectedHash, String requestHash) {
+        if (!expectedHash.equals(requestHash)) {
+            throw new IdempotencyConflictException(
+                    "Idempotency-Key " + key + " was already used with a different request");
+        }
+    }
+
+    private String hash(OrderRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash order request", e);
+        }
+    }
+
+    private String toJson(OrderResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response for order " + response.getOrderId(), e);
+        }
+    }
+
+    private OrderResponse fromJson(String response) {
+        try {
+            return objectMapper.readValue(response, OrderResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored order response", e);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Interrupted while waiting for an idempotent request");
+        }
+    }
+
+    private static final class InFlight {
+        private final String requestHash;
+        private final CompletableFuture<OrderResponse> response = new CompletableFuture<>();
+
+        private InFlight(String requestHash) {
+            this.requestHash = requestHash;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.ioidigital.orderservice.service.idempotency;
+
+import com.ioidigital.orderservice.dto.OrderResponse;
+import lombok.Value;
+
+/**
+ * Response to an order request carrying an Idempotency-Key, and whether it was replayed
+ * from an earlier request with the same key instead of creating the order.
+ */
+@Value
+public class IdempotentResult {
+    OrderResponse response;
+    boolean replayed;
+
+    static IdempotentResult created(OrderResponse response) {
+        return new IdempotentResult(response, false);
+    }
+
+    static IdempotentResult replayed(OrderResponse response) {
+        return new IdempotentResult(response, true);
+    }
+}
@@ -1,8 +1,16 @@
 package com.ioidigital.orderservice.service.impl;
 
+import com.ioidigital.orderservice.dto.BatchOrderRequest;
+import com.ioidigital.orderservice.dto.BatchOrderResponse;
+import com.ioidigital.orderservice.dto.BatchOrderResult;
+import com.ioidigital.orderservice.dto.BulkStatusUpdateRequest;
+import com.ioidigital.orderservice.dto.BulkStatusUpdateResponse;
+import com.ioidigital.orderservice.dto.MenuItemDetails;
+import com.ioidigital.orderservice.dto.OrderCursor;
 import com.ioidigital.orderservice.dto.OrderItemDto;
 import com.ioidigital.orderservice.dto.OrderStatusUpdateRequest;
 import com.ioidigital.orderservice.dto.PagedResponse;
+import com.ioidigital.orderservice.entity.Money;
 import com.ioidigital.orderservice.entity.Order;
 import com.ioidigital.orderservice.entity.OrderItem;
 import com.ioidigital.orderservice.entity.OrderStatus;
@@ -14,36 +22,88 @@ import com.ioidigital.orderservice.dto.OrderResponse;
 import com.ioidigital.orderservice.exception.ResourceNotFoundException;
 import com.ioidigital.orderservice.repository.OrderItemRepository;
 import com.ioidigital.orderservice.repository.OrderRepository;
+import com.ioidigital.orderservice.repository.OrderItemSummary;
+import com.ioidigital.orderservice.repository.OrderStatusChange;
+import com.ioidigital.orderservice.repository.OrderSummary;
+import com.ioidigital.orderservice.service.cache.OrderDetailsCache;
+import com.ioidigital.orderservice.service.cache.OrderEntityCache;
+import com.ioidigital.orderservice.service.eta.OrderEtaEstimator;
+import com.ioidigital.orderservice.service.external.DownstreamCalls;
 import com.ioidigital.orderservice.service.external.MenuServiceClient;
 import com.ioidigital.orderservice.service.external.ShopServiceClient;
+import com.ioidigital.orderservice.service.metrics.OrderMetrics;
+import com.ioidigital.orderservice.service.outbox.OrderOutbox;
+import com.ioidigital.orderservice.service.stats.ShopOrderStats;
+import com.ioidigital.orderservice.service.tracking.OrderStatusHub;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
+    // Orders persisted per transaction by createOrders
+    private static final int BATCH_CHUNK_SIZE = 200;
+    // Compare-and-set rounds before a status update racing other writers gives up
+    private static final int MAX_STATUS_UPDATE_ATTEMPTS = 3;
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final MenuServiceClient menuServiceClient; // For menu details
     private final ShopServiceClient shopServiceClient; // For shop details and queue management
+    private final OrderOutbox orderOutbox; // Order events, relayed to notifications asynchronously
+    private final DownstreamCalls downstreamCalls; // Concurrent calls to shop and menu services
+    private final OrderDetailsCache orderDetailsCache; // Serves repeated order detail polls from memory
+    private final OrderEntityCache orderEntityCache; // Invalidates cached orders changed by native SQL
+    private final OrderStatusHub orderStatusHub; // Pushes status changes to subscribed clients
+    private final OrderEtaEstimator orderEtaEstimator; // Pickup estimates learned from preparation times
+    private final ShopOrderStats shopOrderStats; // Live counters behind the shop dashboard
+    private final OrderMetrics orderMetrics; // Per-phase timers of the write paths
+    private final PlatformTransactionManager transactionManager; // Chunked transactions for batch creation
 
     @Transactional
     public OrderResponse createOrder(OrderRequest request) {
-        // 1. Mocked Shop and Customer existence validation
+        // 1. Mocked Shop existence validation and menu lookup, run concurrently
         // This should validate in Shop services.
-        if (!shopServiceClient.doesShopExist(request.getShopId())) {
-            throw new ResourceNotFoundException("Shop not found with ID: " + request.getShopId());
-        }
+        CompletableFuture<Boolean> shopCheck = downstreamCalls.submit("Shop service", () ->
+                orderMetrics.time("create", "shop-validation", () -> {
+                    if (!shopServiceClient.doesShopExist(request.getShopId())) {
+                        throw new ResourceNotFoundException("Shop not found with ID: " + request.getShopId());
+                    }
+                    return true;
+                }));
+
+        // One bulk (and usually cached) lookup prices every line of the order
+        Set<UUID> menuItemIds = request.getItems().stream()
+                .map(OrderItemDto::getMenuItemId)
+                .collect(Collectors.toSet());
+        CompletableFuture<Map<UUID, MenuItemDetails>> menuLookup = downstreamCalls.submit("Menu service",
+                () -> orderMetrics.time("create", "menu-lookup", () -> menuServiceClient.getMenuItems(menuItemIds)));
+
+        downstreamCalls.awaitAll(shopCheck, menuLookup);
+        Map<UUID, MenuItemDetails> menuItems = menuLookup.join();
 
         // Assuming customer validation happens at API Gateway via JWT or User Service.
         // if (!userServiceClient.doesCustomerExist(request.getCustomerId())) {
@@ -52,129 +112,390 @@ public class OrderServiceImpl implements OrderService {
 
 
         // 2. Validate menu items and calculate total item amount
-        BigDecimal totalAmount = BigDecimal.ZERO;
-        List<OrderItem> orderItems = new ArrayList<>();
+        List<OrderItem> orderItems = orderMetrics.time("create", "pricing", () -> priceOrderItems(request, menuItems));
 
-        for (OrderItemDto itemDto : request.getItems()) {
-            // Mock call to Menu Service to get price and item name
-            BigDecimal itemPrice = menuServiceClient.getMenuItemPrice(itemDto.getMenuItemId());
-            String itemName = menuServiceClient.getMenuItemName(itemDto.getMenuItemId());
-            if (itemPrice == null || itemName == null) {
-                throw new ResourceNotFoundException("Menu item not found or unavailable: " + itemDto.getMenuItemId());
-            }
-            if (itemDto.getQuantity() <= 0) {
-                throw new InvalidOrderException("Quantity for item " + itemName + " must be positive.");
-            }
+        // 3. Create and Save Order
+        Order order = newOrder(request, orderItems);
 
-            BigDecimal itemTotalPrice = itemPrice.multiply(BigDecimal.valueOf(itemDto.getQuantity()));
-            totalAmount = totalAmount.add(itemTotalPrice);
+        // 4. Add to the shop queue and estimate pickup time from the work queued ahead
+        orderMetrics.time("create", "queue", () -> assignQueueSlot(order, orderItems));
 
-            OrderItem orderItem = OrderItem.builder()
-                    .menuItemId(itemDto.getMenuItemId())
-                    .quantity(itemDto.getQuantity())
-                    .unitPrice(itemPrice)
-                    .itemName(itemName)
-                    .build();
-            orderItems.add(orderItem);
-
-        }
+        Order savedOrder = orderMetrics.time("create", "order-save", () -> orderRepository.save(order));
 
-        if (orderItems.isEmpty()) {
-            throw new InvalidOrderException("Order must contain at least one valid item.");
+        // 5. Save Order Items (one JDBC batch, flushed together with the order insert)
+        for (OrderItem item : orderItems) {
+            item.setId(UUID.randomUUID());
+            item.setOrderId(savedOrder.getId());
+            item.setOrderTime(savedOrder.getOrderTime());
         }
+        orderMetrics.time("create", "item-save", () -> orderItemRepository.saveAll(orderItems));
 
-        // 3. Create and Save Order
-        Order order = new Order();
-        order.setCustomerId(request.getCustomerId());
-        order.setShopId(request.getShopId());
-        order.setStatus(OrderStatus.PAID);
-        order.setTotalAmount(totalAmount);
-        order.setOrderTime(LocalDateTime.now());
-
-        // 4. Simulate adding to queue and getting position/ETA
-        Integer queuePosition = shopServiceClient.addOrderToQueue(request.getShopId(), order.getId());
-        LocalDateTime estimatedPickupTime = LocalDateTime.now().plusMinutes(queuePosition * 2); // Simple estimation
-
-        order.setQueuePosition(queuePosition);
-        order.setEstimatedWaitingTime(estimatedPickupTime);
+        // 6. Record the confirmation event; it commits with the order and is relayed in the background
+        orderMetrics.time("create", "outbox", () -> orderOutbox.orderCreated(savedOrder));
+        orderDetailsCache.evictAfterCommit(savedOrder.getId());
+        shopOrderStats.orderCreatedAfterCommit(savedOrder);
 
-        Order savedOrder = orderRepository.save(order);
+        return toResponse(savedOrder, orderItems);
+    }
 
-        // 5. Save Order Items
-        for (OrderItem item : orderItems) {
-            item.setOrderId(savedOrder.getId());
-            orderItemRepository.save(item);
+    @Override
+    public BatchOrderResponse createOrders(BatchOrderRequest request) {
+        List<OrderRequest> requests = request.getOrders();
+
+        // 1. Check each distinct shop once and price the whole batch with one bulk menu lookup, concurrently
+        Map<UUID, CompletableFuture<Boolean>> shopChecks = new HashMap<>();
+        for (OrderRequest orderRequest : requests) {
+            shopChecks.computeIfAbsent(orderRequest.getShopId(), shopId ->
+                    downstreamCalls.submit("Shop service", () -> shopServiceClient.doesShopExist(shopId)));
+        }
+        Set<UUID> menuItemIds = requests.stream()
+                .flatMap(orderRequest -> orderRequest.getItems().stream())
+                .map(OrderItemDto::getMenuItemId)
+                .collect(Collectors.toSet());
+        CompletableFuture<Map<UUID, MenuItemDetails>> menuLookup = downstreamCalls.submit("Menu service",
+                () -> menuServiceClient.getMenuItems(menuItemIds));
+
+        List<CompletableFuture<?>> calls = new ArrayList<>(shopChecks.values());
+        calls.add(menuLookup);
+        downstreamCalls.awaitAll(calls.toArray(new CompletableFuture<?>[0]));
+        Map<UUID, MenuItemDetails> menuItems = menuLookup.join();
+
+        // 2. Validate and price every order; invalid ones are reported without failing the rest
+        BatchOrderResult[] results = new BatchOrderResult[requests.size()];
+        List<PendingOrder> pendingOrders = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            OrderRequest orderRequest = requests.get(i);
+            if (!shopChecks.get(orderRequest.getShopId()).join()) {
+                results[i] = BatchOrderResult.failure(i, "Shop not found with ID: " + orderRequest.getShopId());
+                continue;
+            }
+            try {
+                List<OrderItem> orderItems = priceOrderItems(orderRequest, menuItems);
+                pendingOrders.add(new PendingOrder(i, newOrder(orderRequest, orderItems), orderItems));
+            } catch (InvalidOrderException e) {
+                results[i] = BatchOrderResult.failure(i, e.getMessage());
+            }
         }
 
-        // TODO: Publish an event (e.g., to Kafka) for Notification Service to send confirmation
+        // 3. Persist in chunks, one transaction and a few JDBC batches each; a failed chunk does not undo earlier ones
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int from = 0; from < pendingOrders.size(); from += BATCH_CHUNK_SIZE) {
+            List<PendingOrder> chunk = pendingOrders.subList(from, Math.min(from + BATCH_CHUNK_SIZE, pendingOrders.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> saveChunk(chunk, results));
+            } catch (RuntimeException e) {
+                for (PendingOrder pendingOrder : chunk) {
+                    if (results[pendingOrder.index()] == null || results[pendingOrder.index()].isSuccess()) {
+                        results[pendingOrder.index()] = BatchOrderResult.failure(pendingOrder.index(),
+                                "Order could not be saved: " + e.getMessage());
+                    }
+                }
+            }
+        }
 
-        return OrderResponse.fromOrderEntityToOrderResponse(savedOrder, orderItems);
+        int succeeded = (int) Arrays.stream(results).filter(BatchOrderResult::isSuccess).count();
+        return BatchOrderResponse.builder()
+                .succeeded(succeeded)
+                .failed(results.length - succeeded)
+                .results(Arrays.asList(results))
+                .build();
     }
 
     public OrderResponse getOrderDetails(UUID orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found with ID: " + orderId));
-        List<OrderItem> items = orderItemRepository.findByOrderId(orderId);
-        return OrderResponse.fromOrderEntityToOrderResponse(order, items);
+        // Polled by customer apps; concurrent misses for the same order share one load
+        OrderResponse cached = orderDetailsCache.get(orderId, this::loadOrderDetails);
+        return withLiveQueuePosition(cached.copy());
     }
 
     @Override
+    @Transactional
     public OrderResponse updateOrderStatus(UUID orderId, OrderStatusUpdateRequest request) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found with ID: " + orderId));
+        OrderStatus newStatus = request.getStatus();
+        List<String> allowedSources = OrderStatus.sourcesOf(newStatus).stream().map(Enum::name).toList();
 
-        // Validate status transition
-        validateStatusTransition(order.getStatus(), request.getStatus());
+        LocalDateTime orderTime = orderTimeOf(orderId);
+        OrderStatusChange change = orderMetrics.time("update-status", "compare-and-set",
+                () -> applyStatusChange(orderId, orderTime, allowedSources, newStatus));
 
-        OrderStatus oldStatus = order.getStatus();
-        order.setStatus(request.getStatus());
+        Order order = change.toOrder();
+        OrderStatus oldStatus = change.previousStatus();
 
         // Handle specific status changes
-        if (request.getStatus() == OrderStatus.CANCELLED && oldStatus != OrderStatus.CANCELLED) {
-            // Remove from queue if being cancelled
-            shopServiceClient.removeOrderFromQueue(order.getShopId(), order.getId());
+        if (oldStatus.isQueued() && !newStatus.isQueued()) {
+            // Remove from queue once ready or cancelled, so the orders behind move up
+            orderMetrics.time("update-status", "queue",
+                    () -> shopServiceClient.removeOrderFromQueue(order.getShopId(), order.getId()));
         }
 
-        orderRepository.save(order);
-        List<OrderItem> items = orderItemRepository.findByOrderId(orderId);
+        orderMetrics.time("update-status", "outbox",
+                () -> orderOutbox.orderStatusChanged(order, oldStatus, request.getReason()));
+        orderEntityCache.invalidate(orderId);
+        orderDetailsCache.evictAfterCommit(orderId);
+        orderStatusHub.publishAfterCommit(order, oldStatus);
+        orderEtaEstimator.statusChangedAfterCommit(orderId, newStatus);
+        shopOrderStats.statusChangedAfterCommit(order, oldStatus);
+        List<OrderItem> items = orderMetrics.time("update-status", "item-load",
+                () -> orderItemRepository.findByOrderIdAndOrderTime(orderId, order.getOrderTime()));
+
+        return toResponse(order, items);
+    }
+
+    @Override
+    @Transactional
+    public BulkStatusUpdateResponse updateOrderStatuses(BulkStatusUpdateRequest request) {
+        OrderStatus newStatus = request.getStatus();
+        Set<UUID> orderIds = new LinkedHashSet<>(request.getOrderIds());
+        List<BulkStatusUpdateResponse.RejectedOrder> rejected = new ArrayList<>();
+
+        // 1. One read for the current state of every order, to explain rejections and find their partitions
+        Map<UUID, Order> ordersById = orderRepository.findAllById(orderIds).stream()
+                .collect(Collectors.toMap(Order::getId, order -> order));
+        List<Order> candidates = new ArrayList<>();
+        for (UUID orderId : orderIds) {
+            Order order = ordersById.get(orderId);
+            String rejection = order == null
+                    ? "Order not found with ID: " + orderId
+                    : order.getStatus().transitionRejection(newStatus);
+            if (rejection != null) {
+                rejected.add(new BulkStatusUpdateResponse.RejectedOrder(orderId, rejection));
+            } else {
+                candidates.add(order);
+            }
+        }
 
-        // TODO: Publish status change event for notifications
+        // 2. One compare-and-set for all candidates, guarded by the allowed source statuses
+        Map<UUID, OrderStatusChange> changes = Map.of();
+        if (!candidates.isEmpty()) {
+            Set<UUID> candidateIds = candidates.stream().map(Order::getId).collect(Collectors.toSet());
+            // The candidates' time range confines the update to the partitions holding them
+            LocalDateTime from = candidates.stream().map(Order::getOrderTime).min(Comparator.naturalOrder()).orElseThrow();
+            LocalDateTime to = candidates.stream().map(Order::getOrderTime).max(Comparator.naturalOrder()).orElseThrow();
+            List<String> allowedSources = OrderStatus.sourcesOf(newStatus).stream().map(Enum::name).toList();
+            changes = orderRepository.compareAndSetStatuses(candidateIds, from, to, allowedSources, newStatus.name(),
+                            LocalDateTime.now()).stream()
+                    .collect(Collectors.toMap(OrderStatusChange::getId, change -> change));
+        }
 
-        return OrderResponse.fromOrderEntityToOrderResponse(order, items);
+        // 3. Queue, events, cache and subscribers for the orders that moved (events go out as one insert batch).
+        // Each uses the order as updated and the status it replaced; either may differ from what step 1 read
+        List<UUID> updated = new ArrayList<>();
+        for (Order candidate : candidates) {
+            OrderStatusChange change = changes.get(candidate.getId());
+            if (change == null) {
+                rejected.add(new BulkStatusUpdateResponse.RejectedOrder(candidate.getId(),
+                        "Order status was changed concurrently"));
+                continue;
+            }
+            Order order = change.toOrder();
+            OrderStatus oldStatus = change.previousStatus();
+            if (oldStatus.isQueued() && !newStatus.isQueued()) {
+                shopServiceClient.removeOrderFromQueue(order.getShopId(), order.getId());
+            }
+            orderOutbox.orderStatusChanged(order, oldStatus, request.getReason());
+            orderEntityCache.invalidate(order.getId());
+            orderDetailsCache.evictAfterCommit(order.getId());
+            orderStatusHub.publishAfterCommit(order, oldStatus);
+            orderEtaEstimator.statusChangedAfterCommit(order.getId(), newStatus);
+            shopOrderStats.statusChangedAfterCommit(order, oldStatus);
+            updated.add(order.getId());
+        }
+
+        return BulkStatusUpdateResponse.builder()
+                .status(newStatus)
+                .updated(updated)
+                .rejected(rejected)
+                .build();
     }
 
+    // List endpoints project rows straight into summaries; read-only transactions also skip the flush at commit
+
     @Override
+    @Transactional(readOnly = true)
     public PagedResponse<OrderResponse> getCustomerOrders(UUID customerId, Pageable pageable) {
-        Page<Order> orderPage = orderRepository.findByCustomerId(customerId, pageable);
+        Page<OrderSummary> orderPage = orderRepository.findByCustomerId(customerId, pageable);
         return buildPagedResponse(orderPage);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PagedResponse<OrderResponse> getAllOrders(Pageable pageable) {
-        Page<Order> orderPage = orderRepository.findAll(pageable);
+        Page<OrderSummary> orderPage = orderRepository.findAllSummaries(pageable);
         return buildPagedResponse(orderPage);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PagedResponse<OrderResponse> getOrdersByShop(UUID shopId, Pageable pageable) {
-        Page<Order> orderPage = orderRepository.findByShopId(shopId, pageable);
+        Page<OrderSummary> orderPage = orderRepository.findByShopId(shopId, pageable);
         return buildPagedResponse(orderPage);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PagedResponse<OrderResponse> getOrdersByStatus(OrderStatus status, Pageable pageable) {
-        Page<Order> orderPage = orderRepository.findByStatus(status, pageable);
+        Page<OrderSummary> orderPage = orderRepository.findByStatus(status, pageable);
         return buildPagedResponse(orderPage);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public PagedResponse<OrderResponse> getCustomerOrders(UUID customerId, OrderCursor cursor, int size) {
+        List<OrderSummary> orders = orderRepository.findByCustomerIdBefore(
+                customerId, cursor.getOrderTime(), cursor.getId(), Limit.of(size + 1));
+        return buildKeysetResponse(orders, cursor, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PagedResponse<OrderResponse> getAllOrders(OrderCursor cursor, int size) {
+        List<OrderSummary> orders = orderRepository.findAllBefore(
+                cursor.getOrderTime(), cursor.getId(), Limit.of(size + 1));
+        return buildKeysetResponse(orders, cursor, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PagedResponse<OrderResponse> getOrdersByShop(UUID shopId, OrderCursor cursor, int size) {
+        List<OrderSummary> orders = orderRepository.findByShopIdBefore(
+                shopId, cursor.getOrderTime(), cursor.getId(), Limit.of(size + 1));
+        return buildKeysetResponse(orders, cursor, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PagedResponse<OrderResponse> getOrdersByStatus(OrderStatus status, OrderCursor cursor, int size) {
+        List<OrderSummary> orders = orderRepository.findByStatusBefore(
+                status, cursor.getOrderTime(), cursor.getId(), Limit.of(size + 1));
+        return buildKeysetResponse(orders, cursor, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderResponse> getActiveOrdersByShop(UUID shopId, int size) {
+        return toResponses(orderRepository.findActiveByShopId(shopId, Limit.of(size)));
+    }
+
+    private void saveChunk(List<PendingOrder> chunk, BatchOrderResult[] results) {
+        List<Order> orders = new ArrayList<>(chunk.size());
+        List<OrderItem> orderItems = new ArrayList<>();
+        List<PendingOrder> queued = new ArrayList<>(chunk.size());
+        for (PendingOrder pendingOrder : chunk) {
+            try {
+                assignQueueSlot(pendingOrder.order(), pendingOrder.items());
+            } catch (ResourceNotFoundException e) {
+                results[pendingOrder.index()] = BatchOrderResult.failure(pendingOrder.index(), e.getMessage());
+                continue;
+            }
+            for (OrderItem item : pendingOrder.items()) {
+                item.setId(UUID.randomUUID());
+                item.setOrderId(pendingOrder.order().getId());
+                item.setOrderTime(pendingOrder.order().getOrderTime());
+            }
+            orders.add(pendingOrder.order());
+            orderItems.addAll(pendingOrder.items());
+            queued.add(pendingOrder);
+        }
+
+        orderRepository.saveAll(orders);
+        orderItemRepository.saveAll(orderItems);
+        for (PendingOrder pendingOrder : queued) {
+            orderOutbox.orderCreated(pendingOrder.order());
+            shopOrderStats.orderCreatedAfterCommit(pendingOrder.order());
+            results[pendingOrder.index()] = BatchOrderResult.success(pendingOrder.index(),
+                    toResponse(pendingOrder.order(), pendingOrder.items()));
+        }
+    }
+
+    // Compare-and-set in one statement: only applies while the order may still move to the new status
+    private OrderStatusChange applyStatusChange(UUID orderId, LocalDateTime orderTime, List<String> allowedSources,
+                                                OrderStatus newStatus) {
+        OrderStatusChange change = null;
+        for (int attempt = 1; change == null; attempt++) {
+            change = allowedSources.isEmpty() ? null : orderRepository.compareAndSetStatus(
+                    orderId, orderTime, allowedSources, newStatus.name(), LocalDateTime.now()).orElse(null);
+            if (change == null) {
+                // Explain why it did not apply; if the order has since moved to an allowed status, try again
+                OrderStatus current = orderRepository.findStatusByIdAndOrderTime(orderId, orderTime)
+                        .orElseThrow(() -> new ResourceNotFoundException("Order not found with ID: " + orderId));
+                validateStatusTransition(current, newStatus);
+                if (attempt == MAX_STATUS_UPDATE_ATTEMPTS) {
+                    throw new InvalidOrderException("Order " + orderId + " is being updated concurrently, please retry");
+                }
+            }
+        }
+        return change;
+    }
+
+    // An order's time never changes, so any cached copy tells which partition holds the order;
+    // usually the details cache or the second-level cache has one and no query is needed
+    private LocalDateTime orderTimeOf(UUID orderId) {
+        OrderResponse cached = orderDetailsCache.getIfPresent(orderId);
+        if (cached != null) {
+            return cached.getOrderTime();
+        }
+        return orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found with ID: " + orderId))
+                .getOrderTime();
+    }
+
+    // Price each line from the menu; rejects unknown or unavailable items and non-positive quantities
+    private List<OrderItem> priceOrderItems(OrderRequest request, Map<UUID, MenuItemDetails> menuItems) {
+        List<OrderItem> orderItems = new ArrayList<>();
+
+        for (OrderItemDto itemDto : request.getItems()) {
+            MenuItemDetails menuItem = menuItems.get(itemDto.getMenuItemId());
+            if (menuItem == null || !menuItem.isAvailable()) {
+                throw new InvalidOrderException("Menu item not found or unavailable: " + itemDto.getMenuItemId());
+            }
+            if (itemDto.getQuantity() <= 0) {
+                throw new InvalidOrderException("Quantity for item " + menuItem.getName() + " must be positive.");
+            }
+
+            OrderItem orderItem = OrderItem.builder()
+                    .menuItemId(itemDto.getMenuItemId())
+                    .quantity(itemDto.getQuantity())
+                    .unitPrice(menuItem.getPrice())
+                    .itemName(menuItem.getName())
+                    .build();
+            orderItems.add(orderItem);
+        }
+
+        if (orderItems.isEmpty()) {
+            throw new InvalidOrderException("Order must contain at least one valid item.");
+        }
+        return orderItems;
+    }
+
+    private Order newOrder(OrderRequest request, List<OrderItem> orderItems) {
+        Money totalAmount = OrderItem.totalOf(orderItems);
+
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setCustomerId(request.getCustomerId());
+        order.setShopId(request.getShopId());
+        order.setStatus(OrderStatus.PAID);
+        order.setTotalAmount(totalAmount);
+        // Truncate to the database precision so keyset cursors built from it seek exactly
+        order.setOrderTime(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        return order;
+    }
+
+    // Takes a queue slot for the order (released again if the transaction rolls back) and estimates pickup
+    private void assignQueueSlot(Order order, List<OrderItem> orderItems) {
+        Integer queuePosition = shopServiceClient.addOrderToQueue(order.getShopId(), order.getId());
+        if (queuePosition == null) {
+            throw new ResourceNotFoundException("Shop not found with ID: " + order.getShopId());
+        }
+        releaseQueueSlotOnRollback(order);
+        LocalDateTime estimatedPickupTime = orderEtaEstimator.orderPlaced(order.getShopId(), order.getId(), orderItems);
+
+        order.setQueuePosition(queuePosition);
+        order.setEstimatedWaitingTime(estimatedPickupTime);
+    }
+
     // Build paginated response
-    private PagedResponse<OrderResponse> buildPagedResponse(Page<Order> orderPage) {
-        List<OrderResponse> orderResponses = orderPage.getContent().stream()
-                .map(order -> {
-                    List<OrderItem> items = orderItemRepository.findByOrderId(order.getId());
-                    return OrderResponse.fromOrderEntityToOrderResponse(order, items);
-                })
-                .collect(Collectors.toList());
+    private PagedResponse<OrderResponse> buildPagedResponse(Page<OrderSummary> orderPage) {
+        List<OrderResponse> orderResponses = toResponses(orderPage.getContent());
 
         return PagedResponse.<OrderResponse>builder()
                 .content(orderResponses)
@@ -189,36 +510,100 @@ public class OrderServiceImpl implements OrderService {
                 .build();
     }
 
-    private void validateStatusTransition(OrderStatus currentStatus, OrderStatus newStatus) {
-        // Define allowed transitions
-        switch (currentStatus) {
-            case PAID:
-                if (newStatus != OrderStatus.PREPARING && newStatus != OrderStatus.CANCELLED) {
-                    throw new InvalidOrderException("Cannot change status from PAID to " + newStatus);
-                }
-                break;
-            case PENDING:
-                if (newStatus != OrderStatus.PREPARING && newStatus != OrderStatus.CANCELLED) {
-                    throw new InvalidOrderException("Cannot change status from PENDING to " + newStatus);
-                }
-                break;
-            case PREPARING:
-                if (newStatus != OrderStatus.READY_FOR_PICKUP && newStatus != OrderStatus.CANCELLED) {
-                    throw new InvalidOrderException("Cannot change status from PREPARING to " + newStatus);
-                }
-                break;
-            case READY_FOR_PICKUP:
-                if (newStatus != OrderStatus.COMPLETED && newStatus.equals(OrderStatus.CANCELLED)) {
-                    throw new InvalidOrderException("Cannot change status from READY_FOR_PICKUP to " + newStatus);
+    // Build cursor response; one extra row is fetched to know whether another page exists
+    private PagedResponse<OrderResponse> buildKeysetResponse(List<OrderSummary> orders, OrderCursor cursor, int size) {
+        boolean hasNext = orders.size() > size;
+        List<OrderSummary> pageOrders = hasNext ? orders.subList(0, size) : orders;
+        List<OrderResponse> orderResponses = toResponses(pageOrders);
+
+        return PagedResponse.<OrderResponse>builder()
+                .content(orderResponses)
+                .page(0)
+                .size(size)
+                .totalElements(-1)
+                .totalPages(-1)
+                .first(cursor.isStart())
+                .last(!hasNext)
+                .hasNext(hasNext)
+                .hasPrevious(!cursor.isStart())
+                .nextCursor(hasNext ? OrderCursor.after(pageOrders.get(pageOrders.size() - 1)).encode() : null)
+                .build();
+    }
+
+    private OrderResponse toResponse(Order order, List<OrderItem> items) {
+        return withLiveQueuePosition(OrderResponse.fromOrderEntityToOrderResponse(order, items));
+    }
+
+    // Loads the order as stored, for the details cache. Order and lines usually come from the second-level
+    // cache; the transaction only keeps the session open for the lines, and as it is not read-only it takes
+    // no connection unless something has to be read from the database
+    private OrderResponse loadOrderDetails(UUID orderId) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order not found with ID: " + orderId));
+            return OrderResponse.fromOrderEntityToOrderResponse(order, order.getItems());
+        });
+    }
+
+    // Queue positions shift as orders ahead leave and ETAs as the shop speeds up or slows down,
+    // so responses carry the live values
+    private OrderResponse withLiveQueuePosition(OrderResponse response) {
+        if (!OrderStatus.valueOf(response.getStatus()).isQueued()) {
+            response.setQueuePosition(null);
+        } else {
+            Integer livePosition = shopServiceClient.getQueuePosition(response.getShopId(), response.getOrderId());
+            if (livePosition != null) {
+                response.setQueuePosition(livePosition);
+            }
+            LocalDateTime liveEta = orderEtaEstimator.currentEta(response.getOrderId());
+            if (liveEta != null) {
+                response.setEstimatedWaitingTime(liveEta);
+            }
+        }
+        return response;
+    }
+
+    // Give the queue slot back if the order never commits
+    private void releaseQueueSlotOnRollback(Order order) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    shopServiceClient.removeOrderFromQueue(order.getShopId(), order.getId());
                 }
-                break;
-            case COMPLETED:
-                throw new InvalidOrderException("Cannot change status of a completed order");
-            case CANCELLED:
-                throw new InvalidOrderException("Cannot change status of a cancelled order");
-            default:
-                throw new InvalidOrderException("Unknown order status: " + currentStatus);
+            }
+        });
+    }
+
+    // Fetch the items of all listed orders with one query and attach them to their orders
+    private List<OrderResponse> toResponses(List<OrderSummary> orders) {
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
         }
+        Set<UUID> orderIds = orders.stream().map(OrderSummary::id).collect(Collectors.toSet());
+        LocalDateTime oldest = orders.stream().map(OrderSummary::orderTime).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime newest = orders.stream().map(OrderSummary::orderTime).max(Comparator.naturalOrder()).orElseThrow();
+        Map<UUID, List<OrderItemSummary>> itemsByOrderId = orderItemRepository
+                .findByOrderIdInAndOrderTimeBetween(orderIds, oldest, newest).stream()
+                .collect(Collectors.groupingBy(OrderItemSummary::orderId));
+        return orders.stream()
+                .map(order -> withLiveQueuePosition(OrderResponse.fromOrderSummary(order,
+                        itemsByOrderId.getOrDefault(order.id(), Collections.emptyList()))))
+                .collect(Collectors.toList());
+    }
+
+    private void validateStatusTransition(OrderStatus currentStatus, OrderStatus newStatus) {
+        String rejection = currentStatus.transitionRejection(newStatus);
+        if (rejection != null) {
+            throw new InvalidOrderException(rejection);
+        }
+    }
+
+    // A validated and priced order of a batch, waiting to be persisted
+    private record PendingOrder(int index, Order order, List<OrderItem> items) {
     }
 
 }
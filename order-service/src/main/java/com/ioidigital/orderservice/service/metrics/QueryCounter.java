@@ -0,0 +1,35 @@
+package com.ioidigital.orderservice.service.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a count is open.
+ * Registered through {@code hibernate.session_factory.statement_inspector}, so Hibernate creates
+ * the instance and the count lives in a thread local. The statement text is passed on unchanged.
+ * <p>
+ * Statements prepared on other threads (the export stream, scheduled jobs) are not counted.
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    public static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    // Statements counted since start(); closes the count
+    public static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count != null ? count[0] : 0;
+    }
+}
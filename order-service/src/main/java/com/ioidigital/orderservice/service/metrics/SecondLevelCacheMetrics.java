@@ -0,0 +1,45 @@
+package com.ioidigital.orderservice.service.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+
+/**
+ * Publishes the regions of Hibernate's second-level cache as the {@code cache.*} meters, tagged
+ * with the region name ({@code cache=orders}, {@code cache=order-items}, ...), next to the
+ * application caches. Hit ratios per region show whether the size limits fit the working set.
+ */
+@Component
+public class SecondLevelCacheMetrics implements MeterBinder {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public SecondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        RegionFactory regionFactory = sessionFactory.getServiceRegistry().getService(RegionFactory.class);
+        if (!(regionFactory instanceof JCacheRegionFactory jcache)) {
+            return; // Second-level cache disabled
+        }
+        CacheManager cacheManager = jcache.getCacheManager();
+        for (String region : sessionFactory.getCache().getCacheRegionNames()) {
+            Cache<Object, Object> cache = cacheManager.getCache(region);
+            if (cache != null) {
+                JCacheMetrics.monitor(registry, cache, Tags.empty());
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.ioidigital.orderservice.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ioidigital.orderservice.entity.OrderEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Appends every delivered event as one JSON line to a file
+@Component
+@ConditionalOnProperty(name = "order.outbox.sink", havingValue = "file")
+public class FileOrderEventSink implements OrderEventSink {
+
+    private final ObjectMapper objectMapper;
+    private final BufferedWriter writer;
+
+    public FileOrderEventSink(ObjectMapper objectMapper,
+                              @Value("${order.outbox.file.path:order-events.ndjson}") Path path) throws IOException {
+        this.objectMapper = objectMapper;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void publish(OrderEvent event) throws IOException {
+        ObjectNode line = objectMapper.createObjectNode();
+        line.put("eventId", event.getId());
+        line.put("eventType", event.getEventType().name());
+        line.put("orderId", event.getOrderId().toString());
+        line.put("shopId", event.getShopId().toString());
+        line.set("payload", objectMapper.readTree(event.getPayload()));
+        writer.write(objectMapper.writeValueAsString(line));
+        writer.newLine();
+        // Only report success once the line has reached the file
+        writer.flush();
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,30 @@
+package com.ioidigital.orderservice.service.outbox;
+
+import com.ioidigital.orderservice.entity.OrderEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Keeps delivered events in memory; the default sink for local runs and tests
+@Component
+@ConditionalOnProperty(name = "order.outbox.sink", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOrderEventSink implements OrderEventSink {
+
+    private final ConcurrentLinkedQueue<OrderEvent> publishedEvents = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void publish(OrderEvent event) {
+        publishedEvents.add(event);
+    }
+
+    public List<OrderEvent> getPublishedEvents() {
+        return new ArrayList<>(publishedEvents);
+    }
+
+    public void clear() {
+        publishedEvents.clear();
+    }
+}
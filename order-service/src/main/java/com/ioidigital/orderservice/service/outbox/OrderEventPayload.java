@@ -0,0 +1,28 @@
+package com.ioidigital.orderservice.service.outbox;
+
+import com.ioidigital.orderservice.entity.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// JSON body of an outbox event, as consumed by the notification service
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEventPayload {
+    private UUID orderId;
+    private UUID customerId;
+    private UUID shopId;
+    private String status;
+    private String previousStatus;
+    private String reason;
+    private Money totalAmount;
+    private Integer queuePosition;
+    private LocalDateTime estimatedWaitingTime;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,148 @@
+package com.ioidigital.orderservice.service.outbox;
+
+import com.ioidigital.orderservice.entity.OrderEvent;
+import com.ioidigital.orderservice.entity.OrderEventStatus;
+import com.ioidigital.orderservice.repository.OrderEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Background relay that drains the order_events outbox to the configured {@link OrderEventSink}.
+ * <p>
+ * Each batch is read oldest first under row locks and marked as published in the same transaction,
+ * so a crash before commit simply redelivers the batch. Events of one shop are delivered in the
+ * order they were recorded: a relay first locks the shops' first pending events (skipping those
+ * another relay holds), then delivers those shops' pending events in sequence, stopping at a shop's
+ * first failure. Relays on several instances never overtake one another, and a failing event holds
+ * back its own shop only. Published events are deleted after a retention period.
+ */
+@Component
+@ConditionalOnProperty(name = "order.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderEventRelay {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderEventRelay.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OrderEventRepository orderEventRepository;
+    private final OrderEventSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration publishedRetention;
+
+    public OrderEventRelay(OrderEventRepository orderEventRepository,
+                           OrderEventSink sink,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${order.outbox.relay.batch-size:100}") int batchSize,
+                           @Value("${order.outbox.relay.max-attempts:10}") int maxAttempts,
+                           @Value("${order.outbox.relay.initial-backoff:PT1S}") Duration initialBackoff,
+                           @Value("${order.outbox.relay.published-retention:P7D}") Duration publishedRetention) {
+        this.orderEventRepository = orderEventRepository;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.publishedRetention = publishedRetention;
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.relay.interval:PT0.5S}")
+    public void drain() {
+        try {
+            // Keep going while anything gets delivered: a backlog clears, and events recorded while a
+            // batch was out go without waiting a tick
+            int delivered;
+            do {
+                delivered = relayBatch();
+            } while (delivered > 0);
+        } catch (RuntimeException e) {
+            LOGGER.error("Outbox relay failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Delivers one batch of pending events and returns how many were delivered.
+     */
+    public int relayBatch() {
+        Integer delivered = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            Set<UUID> shopIds = orderEventRepository.findDeliverable(OrderEventStatus.PENDING, now, Limit.of(batchSize))
+                    .stream()
+                    .map(OrderEvent::getShopId)
+                    .collect(Collectors.toSet());
+            if (shopIds.isEmpty()) {
+                return 0;
+            }
+            List<OrderEvent> batch = orderEventRepository.findByShopIdInAndStatusOrderBySequenceNumber(shopIds,
+                    OrderEventStatus.PENDING, Limit.of(batchSize));
+            Set<UUID> heldBack = new HashSet<>();
+            int deliveredInBatch = 0;
+
+            for (OrderEvent event : batch) {
+                // Nothing of a shop goes out after an event of it that failed or waits for a retry
+                if (heldBack.contains(event.getShopId())
+                        || (event.getNextAttemptAt() != null && event.getNextAttemptAt().isAfter(now))) {
+                    heldBack.add(event.getShopId());
+                    continue;
+                }
+                try {
+                    sink.publish(event);
+                    event.setStatus(OrderEventStatus.PUBLISHED);
+                    event.setPublishedAt(now);
+                    deliveredInBatch++;
+                } catch (Exception e) {
+                    recordFailure(event, e, now);
+                    heldBack.add(event.getShopId());
+                }
+            }
+            return deliveredInBatch;
+        });
+        return delivered != null ? delivered : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.relay.purge-interval:PT1H}")
+    public void purgePublished() {
+        try {
+            Integer purged = transactionTemplate.execute(status -> orderEventRepository.deleteByStatusAndPublishedAtBefore(
+                    OrderEventStatus.PUBLISHED, LocalDateTime.now().minus(publishedRetention)));
+            LOGGER.debug("Purged {} published order events", purged);
+        } catch (RuntimeException e) {
+            LOGGER.error("Order event purge failed: " + e.getMessage(), e);
+        }
+    }
+
+    private void recordFailure(OrderEvent event, Exception e, LocalDateTime now) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(truncate(e.getClass().getSimpleName() + ": " + e.getMessage()));
+        if (attempts >= maxAttempts) {
+            event.setStatus(OrderEventStatus.FAILED);
+            LOGGER.error("Giving up on order event {} for order {} after {} attempts",
+                    event.getId(), event.getOrderId(), attempts, e);
+            return;
+        }
+        // Exponential backoff, capped at 64x the initial delay
+        event.setNextAttemptAt(now.plus(initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 6))));
+        LOGGER.warn("Delivery of order event {} failed (attempt {}): {}", event.getId(), attempts, e.getMessage());
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
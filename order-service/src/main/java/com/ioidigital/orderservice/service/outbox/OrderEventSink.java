@@ -0,0 +1,13 @@
+package com.ioidigital.orderservice.service.outbox;
+
+import com.ioidigital.orderservice.entity.OrderEvent;
+
+/**
+ * Destination the outbox relay delivers events to. Delivery is at-least-once: an event may be
+ * handed over again after a crash or a failed commit, so consumers should de-duplicate on the
+ * event id. Throwing marks the delivery as failed and it is retried later.
+ */
+public interface OrderEventSink {
+
+    void publish(OrderEvent event) throws Exception;
+}
@@ -0,0 +1,75 @@
+package com.ioidigital.orderservice.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ioidigital.orderservice.entity.Order;
+import com.ioidigital.orderservice.entity.OrderEvent;
+import com.ioidigital.orderservice.entity.OrderEventStatus;
+import com.ioidigital.orderservice.entity.OrderEventType;
+import com.ioidigital.orderservice.entity.OrderStatus;
+import com.ioidigital.orderservice.repository.OrderEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records order events in the order_events outbox. Must run inside the transaction that
+ * changes the order, so the event commits (or rolls back) together with it; delivery is
+ * left to {@link OrderEventRelay}. The order passed in must carry its version after the change.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderOutbox {
+
+    private final OrderEventRepository orderEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderCreated(Order order) {
+        record(order, OrderEventType.ORDER_CREATED, payloadOf(order).build());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderStatusChanged(Order order, OrderStatus previousStatus, String reason) {
+        record(order, OrderEventType.ORDER_STATUS_CHANGED, payloadOf(order)
+                .previousStatus(previousStatus.name())
+                .reason(reason)
+                .build());
+    }
+
+    private void record(Order order, OrderEventType eventType, OrderEventPayload payload) {
+        OrderEvent event = OrderEvent.builder()
+                .orderId(order.getId())
+                .shopId(order.getShopId())
+                .orderVersion(order.getVersion())
+                .eventType(eventType)
+                .payload(toJson(payload))
+                .status(OrderEventStatus.PENDING)
+                .createdAt(payload.getOccurredAt())
+                .build();
+        orderEventRepository.save(event);
+    }
+
+    private OrderEventPayload.OrderEventPayloadBuilder payloadOf(Order order) {
+        return OrderEventPayload.builder()
+                .orderId(order.getId())
+                .customerId(order.getCustomerId())
+                .shopId(order.getShopId())
+                .status(order.getStatus().name())
+                .totalAmount(order.getTotalAmount())
+                .queuePosition(order.getQueuePosition())
+                .estimatedWaitingTime(order.getEstimatedWaitingTime())
+                .occurredAt(LocalDateTime.now());
+    }
+
+    private String toJson(OrderEventPayload payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize event for order " + payload.getOrderId(), e);
+        }
+    }
+}
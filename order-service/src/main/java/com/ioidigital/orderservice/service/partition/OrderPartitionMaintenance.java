@@ -0,0 +1,153 @@
+package com.ioidigital.orderservice.service.partition;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the monthly partitions of orders and order_items ahead of the clock.
+ * <p>
+ * On Postgres both tables are range partitioned by order_time (see the V1_5 migration), and an
+ * insert for a month without a partition fails. This job creates the partitions for the current
+ * month and the configured number of months ahead, and, when a retention is configured, detaches
+ * the partitions of months older than that. Detached partitions stay in the database as plain
+ * tables for archiving or dropping; they are no longer scanned or vacuumed as part of orders.
+ * On other databases, or before the migration ran, it does nothing.
+ */
+@Component
+@ConditionalOnProperty(name = "order.partitions.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderPartitionMaintenance {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderPartitionMaintenance.class);
+    private static final List<String> PARTITIONED_TABLES = List.of("orders", "order_items");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("'_p'uuuu_MM");
+    // Serializes maintenance across instances; any constant unique to this job will do
+    private static final long ADVISORY_LOCK_KEY = 0x6f72646572730001L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final Duration lockTimeout;
+
+    private Boolean partitioned;
+
+    public OrderPartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${order.partitions.months-ahead:3}") int monthsAhead,
+                                     @Value("${order.partitions.retention-months:0}") int retentionMonths,
+                                     @Value("${order.partitions.lock-timeout:PT5S}") Duration lockTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.lockTimeout = lockTimeout;
+    }
+
+    // Also runs right after startup, so a service that was down for a while catches up before taking orders
+    @Scheduled(fixedDelayString = "${order.partitions.interval:PT6H}")
+    public void maintain() {
+        try {
+            if (isPartitioned()) {
+                maintain(YearMonth.now());
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Order partition maintenance failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Creates the partitions from {@code currentMonth} to the configured months ahead and detaches
+     * those older than the retention. Returns false if another instance was already doing it.
+     */
+    public boolean maintain(YearMonth currentMonth) {
+        Boolean ran = transactionTemplate.execute(status -> {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, ADVISORY_LOCK_KEY))) {
+                return false;
+            }
+            // Partition DDL locks the parent table; give up rather than queue every order query behind it
+            jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeout.toMillis());
+
+            for (int ahead = 0; ahead <= monthsAhead; ahead++) {
+                createPartitions(currentMonth.plusMonths(ahead));
+            }
+            if (retentionMonths > 0) {
+                detachPartitionsBefore(currentMonth.minusMonths(retentionMonths));
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(ran);
+    }
+
+    private void createPartitions(YearMonth month) {
+        for (String table : PARTITIONED_TABLES) {
+            String partition = table + SUFFIX.format(month);
+            Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition);
+            if (Boolean.TRUE.equals(exists)) {
+                continue;
+            }
+            jdbcTemplate.execute("CREATE TABLE " + partition + " PARTITION OF " + table
+                    + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+            LOGGER.info("Created partition {} of {}", partition, table);
+        }
+    }
+
+    private void detachPartitionsBefore(YearMonth oldestKept) {
+        for (String table : PARTITIONED_TABLES) {
+            for (String partition : partitionsOf(table)) {
+                YearMonth month = monthOf(table, partition);
+                if (month != null && month.isBefore(oldestKept)) {
+                    jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+                    LOGGER.info("Detached partition {} from {}", partition, table);
+                }
+            }
+        }
+    }
+
+    private List<String> partitionsOf(String table) {
+        return new ArrayList<>(jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "WHERE i.inhparent = to_regclass(?)", String.class, table));
+    }
+
+    // Month of a partition following the naming scheme, or null for anything else attached to the table
+    private static YearMonth monthOf(String table, String partition) {
+        if (!partition.startsWith(table + "_p")) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partition.substring(table.length()), SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private boolean isPartitioned() {
+        if (partitioned == null) {
+            boolean postgres = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())));
+            partitioned = postgres && Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                    jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM pg_partitioned_table "
+                            + "WHERE partrelid = to_regclass('orders'))", Boolean.class)));
+            if (!partitioned) {
+                LOGGER.info("Orders table is not partitioned, skipping partition maintenance");
+            }
+        }
+        return partitioned;
+    }
+}
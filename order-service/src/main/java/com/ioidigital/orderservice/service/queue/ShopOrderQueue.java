@@ -0,0 +1,167 @@
+package com.ioidigital.orderservice.service.queue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * FIFO queue of the orders waiting at one shop. Orders are ranked by an increasing ticket number
+ * held in a size-augmented treap, so enqueue, removal of any order and position lookup are all
+ * O(log n) and positions stay exact when an order in the middle leaves the queue.
+ * <p>
+ * Operations on one shop are serialized by the queue's own lock; different shops never contend.
+ */
+public class ShopOrderQueue {
+
+    private final Map<UUID, Long> ticketsByOrderId = new HashMap<>();
+    private Node root;
+    private long nextTicket;
+
+    /**
+     * Adds the order to the back of the queue and returns its 1-based position. Adding an order
+     * that is already queued keeps its place and returns its current position.
+     */
+    public synchronized int enqueue(UUID orderId) {
+        Long existing = ticketsByOrderId.get(orderId);
+        if (existing != null) {
+            return rank(existing) + 1;
+        }
+        long ticket = nextTicket++;
+        ticketsByOrderId.put(orderId, ticket);
+        root = insert(root, new Node(ticket));
+        return size(root);
+    }
+
+    /**
+     * Removes the order wherever it is in the queue; the orders behind it move up by one.
+     * Returns false if the order was not queued.
+     */
+    public synchronized boolean remove(UUID orderId) {
+        Long ticket = ticketsByOrderId.remove(orderId);
+        if (ticket == null) {
+            return false;
+        }
+        root = delete(root, ticket);
+        return true;
+    }
+
+    /**
+     * Returns the current 1-based position of the order, or null if it is not queued.
+     */
+    public synchronized Integer positionOf(UUID orderId) {
+        Long ticket = ticketsByOrderId.get(orderId);
+        return ticket == null ? null : rank(ticket) + 1;
+    }
+
+    public synchronized int size() {
+        return size(root);
+    }
+
+    // Number of queued tickets smaller than the given one
+    private int rank(long ticket) {
+        int rank = 0;
+        Node node = root;
+        while (node != null) {
+            if (ticket < node.ticket) {
+                node = node.left;
+            } else if (ticket > node.ticket) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left);
+            }
+        }
+        return rank;
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (added.ticket < node.ticket) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private static Node delete(Node node, long ticket) {
+        if (node == null) {
+            return null;
+        }
+        if (ticket < node.ticket) {
+            node.left = delete(node.left, ticket);
+        } else if (ticket > node.ticket) {
+            node.right = delete(node.right, ticket);
+        } else {
+            return merge(node.left, node.right);
+        }
+        update(node);
+        return node;
+    }
+
+    // Joins two treaps where every ticket on the left is smaller than every ticket on the right
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node {
+        private final long ticket;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        private Node(long ticket) {
+            this.ticket = ticket;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.ioidigital.orderservice.service.stats;
+
+import com.ioidigital.orderservice.dto.ShopOrderStatsResponse;
+import com.ioidigital.orderservice.entity.Money;
+import com.ioidigital.orderservice.entity.Order;
+import com.ioidigital.orderservice.entity.OrderStatus;
+import com.ioidigital.orderservice.repository.OrderRepository;
+import com.ioidigital.orderservice.repository.ShopSales;
+import com.ioidigital.orderservice.repository.ShopStatusCount;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live per-shop order counters for the shop dashboard: open orders per status, and orders and
+ * revenue of the current day.
+ * <p>
+ * Order creation and status changes adjust the counters after their transaction commits. The
+ * counters are {@link LongAdder}s, so concurrent orders at a busy shop do not contend on a
+ * single value, and reading a shop's stats is a handful of sums with no query. Revenue is
+ * counted in cents. The day's totals start over at midnight.
+ * <p>
+ * Counters only see writes made through this instance, and a change committed while the
+ * process dies is never counted, so a background job replaces them with aggregates from the
+ * database, at startup and then every {@code order.stats.reconcile-interval}. A change applied
+ * while a reconciliation runs can be off until the next one.
+ */
+@Component
+public class ShopOrderStats {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShopOrderStats.class);
+    private static final List<OrderStatus> OPEN_STATUSES = Arrays.stream(OrderStatus.values())
+            .filter(status -> !status.isFinal())
+            .toList();
+
+    private final Map<UUID, ShopCounters> shops = new ConcurrentHashMap<>();
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private volatile LocalDateTime reconciledAt;
+
+    public ShopOrderStats(OrderRepository orderRepository, PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Counts a new order once the current transaction commits, or right away when no transaction
+     * is active.
+     */
+    public void orderCreatedAfterCommit(Order order) {
+        UUID shopId = order.getShopId();
+        OrderStatus status = order.getStatus();
+        LocalDate day = order.getOrderTime().toLocalDate();
+        long amountCents = centsOf(order.getTotalAmount());
+        afterCommit(() -> {
+            ShopCounters counters = countersOf(shopId);
+            counters.open(status, 1);
+            DayTotals today = counters.today();
+            if (today.day.equals(day)) {
+                today.orders.increment();
+                today.revenueCents.add(amountCents);
+            }
+        });
+    }
+
+    /**
+     * Moves an order between the status counters once the current transaction commits, or right
+     * away when no transaction is active. A cancelled order no longer counts towards the day.
+     */
+    public void statusChangedAfterCommit(Order order, OrderStatus previousStatus) {
+        UUID shopId = order.getShopId();
+        OrderStatus status = order.getStatus();
+        LocalDate day = order.getOrderTime() != null ? order.getOrderTime().toLocalDate() : null;
+        long amountCents = centsOf(order.getTotalAmount());
+        afterCommit(() -> {
+            ShopCounters counters = countersOf(shopId);
+            counters.open(previousStatus, -1);
+            counters.open(status, 1);
+            DayTotals today = counters.today();
+            if (status == OrderStatus.CANCELLED && today.day.equals(day)) {
+                today.orders.decrement();
+                today.revenueCents.add(-amountCents);
+            }
+        });
+    }
+
+    public ShopOrderStatsResponse statsOf(UUID shopId) {
+        ShopCounters counters = shops.get(shopId);
+        Map<OrderStatus, Long> openOrders = new EnumMap<>(OrderStatus.class);
+        long openTotal = 0;
+        for (OrderStatus status : OPEN_STATUSES) {
+            long open = counters != null ? Math.max(0, counters.open.get(status).sum()) : 0;
+            openOrders.put(status, open);
+            openTotal += open;
+        }
+        DayTotals today = counters != null ? counters.today() : new DayTotals(LocalDate.now());
+        long orders = Math.max(0, today.orders.sum());
+        Money revenue = Money.ofMinor(today.revenueCents.sum());
+
+        return ShopOrderStatsResponse.builder()
+                .shopId(shopId)
+                .openOrders(openOrders)
+                .openOrdersTotal(openTotal)
+                .day(today.day)
+                .ordersToday(orders)
+                .revenueToday(revenue)
+                .averageTicket(orders > 0 ? revenue.dividedBy(orders) : Money.ZERO)
+                .reconciledAt(reconciledAt)
+                .build();
+    }
+
+    // Also runs right after startup, which seeds the counters
+    @Scheduled(fixedDelayString = "${order.stats.reconcile-interval:PT5M}")
+    public void reconcile() {
+        try {
+            LocalDate day = LocalDate.now();
+            Aggregates aggregates = transactionTemplate.execute(status -> new Aggregates(
+                    orderRepository.countByShopAndStatus(OPEN_STATUSES),
+                    orderRepository.sumSalesByShopSince(day.atStartOfDay())));
+            if (aggregates != null) {
+                apply(day, aggregates);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Reconciling shop order stats failed: " + e.getMessage(), e);
+        }
+    }
+
+    private void apply(LocalDate day, Aggregates aggregates) {
+        Map<UUID, Map<OrderStatus, Long>> openByShop = new HashMap<>();
+        for (ShopStatusCount count : aggregates.openCounts()) {
+            openByShop.computeIfAbsent(count.shopId(), id -> new EnumMap<>(OrderStatus.class))
+                    .put(count.status(), count.count());
+            countersOf(count.shopId());
+        }
+        Map<UUID, ShopSales> salesByShop = new HashMap<>();
+        for (ShopSales sales : aggregates.sales()) {
+            salesByShop.put(sales.shopId(), sales);
+            countersOf(sales.shopId());
+        }
+
+        for (Map.Entry<UUID, ShopCounters> entry : shops.entrySet()) {
+            Map<OrderStatus, Long> open = openByShop.getOrDefault(entry.getKey(), Map.of());
+            ShopCounters counters = entry.getValue();
+            for (OrderStatus status : OPEN_STATUSES) {
+                reset(counters.open.get(status), open.getOrDefault(status, 0L));
+            }
+            DayTotals today = counters.today();
+            if (today.day.equals(day)) {
+                ShopSales sales = salesByShop.get(entry.getKey());
+                reset(today.orders, sales != null ? sales.orders() : 0);
+                reset(today.revenueCents, sales != null ? Money.of(sales.revenue()).minorUnits() : 0);
+            }
+        }
+        reconciledAt = LocalDateTime.now();
+    }
+
+    private ShopCounters countersOf(UUID shopId) {
+        return shops.computeIfAbsent(shopId, id -> new ShopCounters());
+    }
+
+    private static void reset(LongAdder counter, long value) {
+        counter.add(value - counter.sum());
+    }
+
+    private static long centsOf(Money amount) {
+        return amount == null ? 0 : amount.minorUnits();
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    private record Aggregates(List<ShopStatusCount> openCounts, List<ShopSales> sales) {
+    }
+
+    private static final class ShopCounters {
+        // Filled once and only read afterwards, so the map itself needs no synchronization
+        private final Map<OrderStatus, LongAdder> open = new EnumMap<>(OrderStatus.class);
+        private volatile DayTotals today = new DayTotals(LocalDate.now());
+
+        private ShopCounters() {
+            for (OrderStatus status : OPEN_STATUSES) {
+                open.put(status, new LongAdder());
+            }
+        }
+
+        private void open(OrderStatus status, int delta) {
+            LongAdder counter = open.get(status);
+            if (counter != null) {
+                counter.add(delta);
+            }
+        }
+
+        // Totals of the current day, starting new ones at midnight
+        private DayTotals today() {
+            DayTotals current = today;
+            LocalDate now = LocalDate.now();
+            if (current.day.equals(now)) {
+                return current;
+            }
+            synchronized (this) {
+                if (!today.day.equals(now)) {
+                    today = new DayTotals(now);
+                }
+                return today;
+            }
+        }
+    }
+
+    private static final class DayTotals {
+        private final LocalDate day;
+        private final LongAdder orders = new LongAdder();
+        private final LongAdder revenueCents = new LongAdder();
+
+        private DayTotals(LocalDate day) {
+            this.day = day;
+        }
+    }
+}
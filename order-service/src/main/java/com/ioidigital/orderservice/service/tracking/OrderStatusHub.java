@@ -0,0 +1,377 @@
+package com.ioidigital.orderservice.service.tracking;
+
+import com.ioidigital.orderservice.dto.OrderStatusEvent;
+import com.ioidigital.orderservice.entity.Order;
+import com.ioidigital.orderservice.entity.OrderStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Fans order status changes out to Server-Sent Event streams, per order and per customer.
+ * <p>
+ * A subscriber is only an {@link SseEmitter} on an async request in a map keyed by order or
+ * customer: no thread waits on an idle connection, so tens of thousands of them cost little more
+ * than their sockets. Status changes are published after their transaction commits and queued
+ * for the few streams interested in that order. A heartbeat comment keeps idle connections from
+ * being cut by proxies and finds the ones whose clients went away.
+ * <p>
+ * Writing to a stream can block on a slow client, so neither the committing request nor the
+ * scheduler writes: each stream has a bounded queue that a small pool of delivery threads drains
+ * in order. A stream whose queue overflows is closed, and its client catches up on reconnect.
+ * Events are queued under the lock that numbers them, and a new stream is registered and given
+ * its replay under it too, so every stream receives its events in id order without gaps.
+ * <p>
+ * Event ids are {@code <instance>-<sequence>}. The most recent events are kept in a bounded
+ * buffer, so a client reconnecting with {@code Last-Event-ID} gets what it missed. When that is
+ * not possible (the id is from another instance or a restart, or older than the buffer) the order
+ * stream starts over with a snapshot and the customer stream sends a {@code resync} event.
+ * <p>
+ * Subscribers only see changes made through this instance; more instances need sticky routing
+ * or a broadcast of the events between them.
+ */
+@Component
+public class OrderStatusHub {
+
+    public static final String STATUS_EVENT = "status";
+    public static final String SNAPSHOT_EVENT = "snapshot";
+    public static final String RESYNC_EVENT = "resync";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderStatusHub.class);
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(3);
+
+    private final String instanceId = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<UUID, Set<Subscriber>> orderSubscribers = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Subscriber>> customerSubscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    // Guarded by itself, as are the sequence and handing events to subscribers, so both see id order
+    private final Deque<BufferedEvent> recentEvents = new ArrayDeque<>();
+    private long sequence;
+    private final int replayBufferSize;
+    private final long timeoutMillis;
+    private final int subscriberQueueSize;
+    private final ThreadPoolTaskExecutor deliveryExecutor = new ThreadPoolTaskExecutor();
+
+    public OrderStatusHub(@Value("${order.events.timeout:PT30M}") Duration timeout,
+                          @Value("${order.events.replay-buffer-size:10000}") int replayBufferSize,
+                          @Value("${order.events.subscriber-queue-size:100}") int subscriberQueueSize,
+                          @Value("${order.events.delivery-threads:8}") int deliveryThreads,
+                          @Value("${order.events.delivery-queue-capacity:50000}") int deliveryQueueCapacity,
+                          MeterRegistry meterRegistry) {
+        this.timeoutMillis = timeout.toMillis();
+        this.replayBufferSize = replayBufferSize;
+        this.subscriberQueueSize = subscriberQueueSize;
+        deliveryExecutor.setThreadNamePrefix("order-events-");
+        deliveryExecutor.setCorePoolSize(deliveryThreads);
+        deliveryExecutor.setMaxPoolSize(deliveryThreads);
+        // Holds at most one pending delivery per stream
+        deliveryExecutor.setQueueCapacity(deliveryQueueCapacity);
+        deliveryExecutor.initialize();
+        Gauge.builder("order.events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open order status event streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream of the order's status changes. A new subscriber first gets a
+     * {@code snapshot} event carrying the order as returned by {@code snapshot}; one resuming
+     * from {@code lastEventId} gets the changes it missed instead. Exceptions thrown by
+     * {@code snapshot} (e.g. order not found) propagate before the stream is opened.
+     */
+    public SseEmitter subscribeToOrder(UUID orderId, String lastEventId, Supplier<?> snapshot) {
+        long resumeAfter = resumePoint(lastEventId);
+        Subscriber subscriber = new Subscriber();
+        if (resumeAfter < 0) {
+            // Changes committed while the snapshot loads are replayed below; the snapshot may already show them
+            resumeAfter = currentSequence();
+            Object current = snapshot.get();
+            subscriber.send(SNAPSHOT_EVENT, resumeAfter, current);
+        }
+        subscribe(orderSubscribers, orderId, subscriber, resumeAfter, event -> event.getOrderId().equals(orderId));
+        return subscriber.emitter;
+    }
+
+    /**
+     * Opens a stream of the status changes of all orders of the customer, from now on or from
+     * {@code lastEventId}.
+     */
+    public SseEmitter subscribeToCustomer(UUID customerId, String lastEventId) {
+        long resumeAfter = resumePoint(lastEventId);
+        Subscriber subscriber = new Subscriber();
+        if (resumeAfter < 0) {
+            resumeAfter = currentSequence();
+            if (lastEventId != null) {
+                // Changes were missed and cannot be replayed; the client reloads the orders it shows
+                subscriber.send(RESYNC_EVENT, resumeAfter, "");
+            }
+        }
+        subscribe(customerSubscribers, customerId, subscriber, resumeAfter,
+                event -> event.getCustomerId().equals(customerId));
+        return subscriber.emitter;
+    }
+
+    /**
+     * Publishes the order's new status once the current transaction commits, or right away when
+     * no transaction is active. Nothing is published if the transaction rolls back.
+     */
+    public void publishAfterCommit(Order order, OrderStatus previousStatus) {
+        OrderStatusEvent event = OrderStatusEvent.builder()
+                .orderId(order.getId())
+                .customerId(order.getCustomerId())
+                .shopId(order.getShopId())
+                .status(order.getStatus())
+                .previousStatus(previousStatus)
+                .estimatedWaitingTime(order.getEstimatedWaitingTime())
+                .occurredAt(LocalDateTime.now())
+                .build();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(event);
+            }
+        });
+    }
+
+    void publish(OrderStatusEvent event) {
+        // Sending only queues the event, so holding the lock for it costs little
+        synchronized (recentEvents) {
+            long id = ++sequence;
+            recentEvents.addLast(new BufferedEvent(id, event));
+            if (recentEvents.size() > replayBufferSize) {
+                recentEvents.removeFirst();
+            }
+            deliver(orderSubscribers.get(event.getOrderId()), id, event);
+            if (event.getCustomerId() != null) {
+                deliver(customerSubscribers.get(event.getCustomerId()), id, event);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.events.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        for (Set<Subscriber> subscribers : orderSubscribers.values()) {
+            subscribers.forEach(Subscriber::heartbeat);
+        }
+        for (Set<Subscriber> subscribers : customerSubscribers.values()) {
+            subscribers.forEach(Subscriber::heartbeat);
+        }
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deliveryExecutor.shutdown();
+    }
+
+    private void subscribe(Map<UUID, Set<Subscriber>> subscribers, UUID key, Subscriber subscriber,
+                           long resumeAfter, Predicate<OrderStatusEvent> filter) {
+        // No event is published until the replay is queued, so live events follow it without a gap
+        synchronized (recentEvents) {
+            // Added and removed inside compute, so a subscriber never lands in a set that was just dropped
+            subscribers.compute(key, (k, set) -> {
+                Set<Subscriber> keySubscribers = set != null ? set : ConcurrentHashMap.newKeySet();
+                keySubscribers.add(subscriber);
+                return keySubscribers;
+            });
+            for (BufferedEvent buffered : recentEvents) {
+                if (buffered.id() > resumeAfter && filter.test(buffered.event())) {
+                    subscriber.send(STATUS_EVENT, buffered.id(), buffered.event());
+                }
+            }
+        }
+        subscriberCount.incrementAndGet();
+        subscriber.onClose(() -> {
+            subscribers.computeIfPresent(key, (k, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+            subscriberCount.decrementAndGet();
+        });
+    }
+
+    private void deliver(Set<Subscriber> subscribers, long id, OrderStatusEvent event) {
+        if (subscribers != null) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.send(STATUS_EVENT, id, event);
+            }
+        }
+    }
+
+    private long currentSequence() {
+        synchronized (recentEvents) {
+            return sequence;
+        }
+    }
+
+    // Sequence a stream can resume after, or -1 if the id does not allow it
+    private long resumePoint(String lastEventId) {
+        if (lastEventId == null || !lastEventId.startsWith(instanceId + "-")) {
+            return -1;
+        }
+        long id;
+        try {
+            id = Long.parseLong(lastEventId.substring(instanceId.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        synchronized (recentEvents) {
+            long oldestBuffered = recentEvents.isEmpty() ? sequence + 1 : recentEvents.getFirst().id();
+            // Every event after the id must still be buffered
+            return id <= sequence && id >= oldestBuffered - 1 ? id : -1;
+        }
+    }
+
+    private record BufferedEvent(long id, OrderStatusEvent event) {
+    }
+
+    private final class Subscriber implements Runnable {
+        final SseEmitter emitter = new SseEmitter(timeoutMillis);
+        // Guarded by this; written out in order by at most one delivery task at a time
+        private final Deque<SseEmitter.SseEventBuilder> pending = new ArrayDeque<>();
+        private boolean delivering;
+        private boolean overflowed;
+        private boolean closed;
+        private Runnable onClose;
+
+        Subscriber() {
+            emitter.onCompletion(this::close);
+            emitter.onTimeout(emitter::complete);
+            emitter.onError(error -> close());
+            enqueue(SseEmitter.event().reconnectTime(RECONNECT_DELAY.toMillis()));
+        }
+
+        synchronized void send(String name, long id, Object data) {
+            if (closed) {
+                return;
+            }
+            enqueue(SseEmitter.event()
+                    .id(instanceId + "-" + id)
+                    .name(name)
+                    .data(data, MediaType.APPLICATION_JSON));
+        }
+
+        synchronized void heartbeat() {
+            // A stream with writes still queued is not idle
+            if (!closed && pending.isEmpty()) {
+                enqueue(SseEmitter.event().comment("heartbeat"));
+            }
+        }
+
+        private synchronized void enqueue(SseEmitter.SseEventBuilder event) {
+            if (overflowed) {
+                return;
+            }
+            if (pending.size() >= subscriberQueueSize) {
+                // The client does not keep up; the delivery task ends the stream and the client
+                // resumes from the replay buffer or a snapshot
+                LOGGER.debug("Closing order event subscriber with {} undelivered events", pending.size());
+                pending.clear();
+                overflowed = true;
+            } else {
+                pending.addLast(event);
+            }
+            if (delivering) {
+                return;
+            }
+            delivering = true;
+            try {
+                deliveryExecutor.execute(this);
+            } catch (RejectedExecutionException e) {
+                // Every delivery thread is behind; shed this stream rather than queue without bound
+                LOGGER.debug("Closing order event subscriber, deliveries are backed up");
+                delivering = false;
+                pending.clear();
+                overflowed = true;
+                emitter.complete();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                synchronized (this) {
+                    event = closed ? null : pending.pollFirst();
+                    if (event == null) {
+                        pending.clear();
+                        delivering = false;
+                        if (closed || !overflowed) {
+                            return;
+                        }
+                    }
+                }
+                if (event == null) {
+                    emitter.complete();
+                    return;
+                }
+                write(event);
+            }
+        }
+
+        private void write(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                // Client gone or stream already completed
+                LOGGER.debug("Dropping order event subscriber: {}", e.getMessage());
+                close();
+            }
+        }
+
+        void onClose(Runnable onClose) {
+            boolean alreadyClosed;
+            synchronized (this) {
+                alreadyClosed = closed;
+                this.onClose = onClose;
+            }
+            if (alreadyClosed) {
+                onClose.run();
+            }
+        }
+
+        private void close() {
+            Runnable callback;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                callback = onClose;
+            }
+            if (callback != null) {
+                callback.run();
+            }
+        }
+    }
+}
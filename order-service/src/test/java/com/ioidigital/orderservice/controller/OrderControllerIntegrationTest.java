@@ -1,35 +1,61 @@
 package com.ioidigital.orderservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ioidigital.orderservice.dto.BatchOrderRequest;
+import com.ioidigital.orderservice.dto.BulkStatusUpdateRequest;
+import com.ioidigital.orderservice.dto.MenuItemDetails;
+import com.ioidigital.orderservice.dto.OrderCursor;
 import com.ioidigital.orderservice.dto.OrderItemDto;
 import com.ioidigital.orderservice.dto.OrderRequest;
 import com.ioidigital.orderservice.dto.OrderStatusUpdateRequest;
+import com.ioidigital.orderservice.entity.Money;
 import com.ioidigital.orderservice.entity.Order;
 import com.ioidigital.orderservice.entity.OrderItem;
 import com.ioidigital.orderservice.entity.OrderStatus;
 import com.ioidigital.orderservice.repository.OrderItemRepository;
 import com.ioidigital.orderservice.repository.OrderRepository;
+import com.ioidigital.orderservice.repository.OrderStatusChange;
+import com.ioidigital.orderservice.repository.OrderSummary;
 import com.ioidigital.orderservice.service.external.MenuServiceClient;
 import com.ioidigital.orderservice.service.external.ShopServiceClient;
+import com.ioidigital.orderservice.service.outbox.OrderOutbox;
+import com.ioidigital.orderservice.service.stats.ShopOrderStats;
+import com.ioidigital.orderservice.service.tracking.OrderStatusHub;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -44,6 +70,12 @@ class OrderControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private OrderStatusHub orderStatusHub;
+
+    @Autowired
+    private ShopOrderStats shopOrderStats;
+
     @MockBean
     private OrderRepository orderRepository;
 
@@ -56,6 +88,9 @@ class OrderControllerIntegrationTest {
     @MockBean
     private ShopServiceClient shopServiceClient;
 
+    @MockBean
+    private OrderOutbox orderOutbox;
+
     private UUID orderId;
     private UUID customerId;
     private UUID shopId;
@@ -91,9 +126,9 @@ class OrderControllerIntegrationTest {
                 .build();
 
         when(shopServiceClient.doesShopExist(any())).thenReturn(true);
-        when(menuServiceClient.getMenuItemPrice(menuItemId1)).thenReturn(BigDecimal.valueOf(5.00));
-        when(menuServiceClient.getMenuItemPrice(menuItemId2)).thenReturn(BigDecimal.valueOf(4.00));
-        when(menuServiceClient.getMenuItemName(any())).thenReturn("Test Item");
+        when(menuServiceClient.getMenuItems(any())).thenReturn(Map.of(
+                menuItemId1, new MenuItemDetails(menuItemId1, "Test Item", Money.parse("5.00"), true),
+                menuItemId2, new MenuItemDetails(menuItemId2, "Test Item", Money.parse("4.00"), true)));
         when(shopServiceClient.addOrderToQueue(any(), any())).thenReturn(1);
 
         when(orderRepository.save(any())).thenAnswer(invocation -> {
@@ -111,6 +146,142 @@ class OrderControllerIntegrationTest {
                 .andExpect(jsonPath("$.status").value(OrderStatus.PAID.name()));
     }
 
+    @Test
+    void createOrder_RepeatedIdempotencyKey_ReplaysOriginalOrder() throws Exception {
+        // Given
+        OrderRequest request = OrderRequest.builder()
+                .shopId(shopId)
+                .customerId(customerId)
+                .items(Arrays.asList(OrderItemDto.builder().menuItemId(menuItemId1).quantity(1).build()))
+                .build();
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        when(shopServiceClient.doesShopExist(any())).thenReturn(true);
+        when(menuServiceClient.getMenuItems(any())).thenReturn(Map.of(
+                menuItemId1, new MenuItemDetails(menuItemId1, "Test Item", Money.parse("5.00"), true)));
+        when(shopServiceClient.addOrderToQueue(any(), any())).thenReturn(1);
+        when(orderRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        String original = mockMvc.perform(post("/api/v1/orders")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "false"))
+                .andReturn().getResponse().getContentAsString();
+
+        // Then
+        mockMvc.perform(post("/api/v1/orders")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.orderId").value(objectMapper.readTree(original).get("orderId").asText()));
+
+        verify(orderRepository, times(1)).save(any());
+        verify(shopServiceClient, times(1)).addOrderToQueue(any(), any());
+    }
+
+    @Test
+    void createOrder_IdempotencyKeyReusedWithDifferentRequest() throws Exception {
+        // Given
+        OrderRequest request = OrderRequest.builder()
+                .shopId(shopId)
+                .customerId(customerId)
+                .items(Arrays.asList(OrderItemDto.builder().menuItemId(menuItemId1).quantity(1).build()))
+                .build();
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        when(shopServiceClient.doesShopExist(any())).thenReturn(true);
+        when(menuServiceClient.getMenuItems(any())).thenReturn(Map.of(
+                menuItemId1, new MenuItemDetails(menuItemId1, "Test Item", Money.parse("5.00"), true)));
+        when(shopServiceClient.addOrderToQueue(any(), any())).thenReturn(1);
+        when(orderRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        mockMvc.perform(post("/api/v1/orders")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        // When & Then
+        request.getItems().get(0).setQuantity(3);
+        mockMvc.perform(post("/api/v1/orders")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void createOrders_Batch_ReturnsResultPerOrder() throws Exception {
+        // Given
+        UUID unknownShopId = UUID.randomUUID();
+        OrderItemDto item = OrderItemDto.builder().menuItemId(menuItemId1).quantity(1).build();
+        BatchOrderRequest request = BatchOrderRequest.builder()
+                .orders(Arrays.asList(
+                        OrderRequest.builder().shopId(shopId).customerId(customerId).items(Arrays.asList(item)).build(),
+                        OrderRequest.builder().shopId(unknownShopId).customerId(customerId).items(Arrays.asList(item)).build()))
+                .build();
+
+        when(shopServiceClient.doesShopExist(shopId)).thenReturn(true);
+        when(shopServiceClient.doesShopExist(unknownShopId)).thenReturn(false);
+        when(menuServiceClient.getMenuItems(any())).thenReturn(Map.of(
+                menuItemId1, new MenuItemDetails(menuItemId1, "Test Item", Money.parse("5.00"), true)));
+        when(shopServiceClient.addOrderToQueue(any(), any())).thenReturn(1);
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/orders/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].success").value(true))
+                .andExpect(jsonPath("$.results[0].order.status").value(OrderStatus.PAID.name()))
+                .andExpect(jsonPath("$.results[1].success").value(false))
+                .andExpect(jsonPath("$.results[1].error").value("Shop not found with ID: " + unknownShopId));
+    }
+
+    @Test
+    void updateOrderStatuses_ReportsRejectedOrders() throws Exception {
+        // Given
+        Order order = new Order();
+        order.setId(orderId);
+        order.setShopId(shopId);
+        order.setCustomerId(customerId);
+        order.setStatus(OrderStatus.PREPARING);
+        order.setTotalAmount(Money.parse("5.00"));
+        order.setOrderTime(LocalDateTime.now());
+        UUID missingId = UUID.randomUUID();
+        BulkStatusUpdateRequest request = BulkStatusUpdateRequest.builder()
+                .orderIds(Arrays.asList(orderId, missingId))
+                .status(OrderStatus.READY_FOR_PICKUP)
+                .build();
+
+        when(orderRepository.findAllById(any())).thenReturn(Arrays.asList(order));
+        OrderStatusChange change = mock(OrderStatusChange.class);
+        when(change.getId()).thenReturn(orderId);
+        when(change.previousStatus()).thenReturn(OrderStatus.PREPARING);
+        when(change.toOrder()).thenAnswer(invocation -> {
+            order.setStatus(OrderStatus.READY_FOR_PICKUP);
+            return order;
+        });
+        when(orderRepository.compareAndSetStatuses(any(), any(), any(), any(), eq(OrderStatus.READY_FOR_PICKUP.name()), any()))
+                .thenReturn(List.of(change));
+
+        // When & Then
+        mockMvc.perform(patch("/api/v1/orders/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated[0]").value(orderId.toString()))
+                .andExpect(jsonPath("$.rejected[0].orderId").value(missingId.toString()))
+                .andExpect(jsonPath("$.rejected[0].reason").value("Order not found with ID: " + missingId));
+    }
+
     @Test
     void getOrder_Success() throws Exception {
         // Given
@@ -119,7 +290,7 @@ class OrderControllerIntegrationTest {
         order.setCustomerId(customerId);
         order.setShopId(shopId);
         order.setStatus(OrderStatus.PAID);
-        order.setTotalAmount(BigDecimal.valueOf(13.00));
+        order.setTotalAmount(Money.parse("13.00"));
         order.setOrderTime(LocalDateTime.now());
 
         OrderItem orderItem = new OrderItem();
@@ -127,17 +298,19 @@ class OrderControllerIntegrationTest {
         orderItem.setOrderId(orderId);
         orderItem.setMenuItemId(menuItemId1);
         orderItem.setQuantity(2);
-        orderItem.setUnitPrice(BigDecimal.valueOf(5.00));
+        orderItem.setUnitPrice(Money.parse("5.00"));
+
+        order.setItems(Arrays.asList(orderItem));
 
         when(orderRepository.findById(orderId)).thenReturn(java.util.Optional.of(order));
-        when(orderItemRepository.findByOrderId(orderId)).thenReturn(Arrays.asList(orderItem));
 
         // When & Then
         mockMvc.perform(get("/api/v1/orders/{orderId}", orderId))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.orderId").value(orderId.toString()))
                 .andExpect(jsonPath("$.status").value(OrderStatus.PAID.name()))
-                .andExpect(jsonPath("$.totalAmount").value(13.00));
+                .andExpect(jsonPath("$.totalAmount").value(13.00))
+                .andExpect(jsonPath("$.items[0].quantity").value(2));
     }
 
     @Test
@@ -145,14 +318,23 @@ class OrderControllerIntegrationTest {
         // Given
         Order order = new Order();
         order.setId(orderId);
+        order.setShopId(shopId);
         order.setStatus(OrderStatus.PAID);
+        order.setOrderTime(LocalDateTime.now());
+        when(orderRepository.findById(orderId)).thenReturn(java.util.Optional.of(order));
 
         OrderStatusUpdateRequest updateRequest = new OrderStatusUpdateRequest();
         updateRequest.setStatus(OrderStatus.PREPARING);
         updateRequest.setReason("Starting preparation");
 
-        when(orderRepository.findById(orderId)).thenReturn(java.util.Optional.of(order));
-        when(orderRepository.save(any())).thenReturn(order);
+        OrderStatusChange change = mock(OrderStatusChange.class);
+        when(change.previousStatus()).thenReturn(OrderStatus.PAID);
+        when(change.toOrder()).thenAnswer(invocation -> {
+            order.setStatus(OrderStatus.PREPARING);
+            return order;
+        });
+        when(orderRepository.compareAndSetStatus(eq(orderId), eq(order.getOrderTime()), any(), eq(OrderStatus.PREPARING.name()), any()))
+                .thenReturn(java.util.Optional.of(change));
 
         // When & Then
         mockMvc.perform(patch("/api/v1/orders/{orderId}/status", orderId)
@@ -165,12 +347,10 @@ class OrderControllerIntegrationTest {
     @Test
     void getCustomerOrders_Success() throws Exception {
         // Given
-        Order order = new Order();
-        order.setId(orderId);
-        order.setCustomerId(customerId);
-        order.setStatus(OrderStatus.PAID);
+        OrderSummary order = new OrderSummary(orderId, customerId, shopId, LocalDateTime.now(), OrderStatus.PAID,
+                Money.parse("13.00"), null, null);
 
-        List<Order> orders = Arrays.asList(order);
+        List<OrderSummary> orders = Arrays.asList(order);
         when(orderRepository.findByCustomerId(eq(customerId), any(Pageable.class)))
                 .thenReturn(new PageImpl<>(orders));
 
@@ -226,6 +406,8 @@ class OrderControllerIntegrationTest {
         updateRequest.setStatus(OrderStatus.PREPARING);
 
         when(orderRepository.findById(orderId)).thenReturn(java.util.Optional.of(order));
+        when(orderRepository.findStatusByIdAndOrderTime(orderId, order.getOrderTime()))
+                .thenReturn(java.util.Optional.of(OrderStatus.COMPLETED));
 
         // When & Then
         mockMvc.perform(patch("/api/v1/orders/{orderId}/status", orderId)
@@ -265,7 +447,7 @@ class OrderControllerIntegrationTest {
                 .build();
 
         when(shopServiceClient.doesShopExist(any())).thenReturn(true);
-        when(menuServiceClient.getMenuItemPrice(menuItemId1)).thenReturn(null);
+        when(menuServiceClient.getMenuItems(any())).thenReturn(Map.of());
 
         // When & Then
         mockMvc.perform(post("/api/v1/orders")
@@ -305,4 +487,298 @@ class OrderControllerIntegrationTest {
                 .andExpect(jsonPath("$.content").isArray())
                 .andExpect(jsonPath("$.content").isEmpty());
     }
+
+    @Test
+    void getShopOrders_CursorMode_ReturnsNextCursor() throws Exception {
+        // Given
+        OrderSummary newest = shopOrderAt(UUID.randomUUID(), LocalDateTime.of(2024, 5, 1, 9, 30));
+        OrderSummary older = shopOrderAt(orderId, LocalDateTime.of(2024, 5, 1, 9, 0));
+        OrderSummary beyondPage = shopOrderAt(UUID.randomUUID(), LocalDateTime.of(2024, 5, 1, 8, 0));
+
+        when(orderRepository.findByShopIdBefore(eq(shopId), any(), any(), any()))
+                .thenReturn(Arrays.asList(newest, older, beyondPage));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/orders/shops/{shopId}", shopId)
+                .param("size", "2")
+                .param("cursor", ""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").value(-1))
+                .andExpect(jsonPath("$.nextCursor").value(OrderCursor.after(older).encode()));
+    }
+
+    private OrderSummary shopOrderAt(UUID id, LocalDateTime orderTime) {
+        return new OrderSummary(id, customerId, shopId, orderTime, OrderStatus.PAID, Money.parse("10.00"), null, null);
+    }
+
+    @Test
+    void getShopOrders_InvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/v1/orders/shops/{shopId}", shopId)
+                .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getShopOrders_PageSizeOutOfRange() throws Exception {
+        for (String size : new String[] {"0", "-2", "101", String.valueOf(Integer.MAX_VALUE)}) {
+            mockMvc.perform(get("/api/v1/orders/shops/{shopId}", shopId)
+                    .param("size", size)
+                    .param("cursor", ""))
+                    .andExpect(status().isBadRequest());
+        }
+        verify(orderRepository, never()).findByShopIdBefore(any(), any(), any(), any());
+    }
+
+    @Test
+    void getActiveShopOrders_ListsOldestFirstUpToSize() throws Exception {
+        // Given
+        OrderSummary oldest = shopOrderAt(orderId, LocalDateTime.of(2024, 5, 1, 9, 0));
+        OrderSummary newer = shopOrderAt(UUID.randomUUID(), LocalDateTime.of(2024, 5, 1, 9, 30));
+
+        when(orderRepository.findActiveByShopId(shopId, Limit.of(2))).thenReturn(Arrays.asList(oldest, newer));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/orders/shops/{shopId}/active", shopId)
+                .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].orderId").value(orderId.toString()));
+
+        mockMvc.perform(get("/api/v1/orders/shops/{shopId}/active", shopId)
+                .param("size", "101"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportOrders_StreamsCsvAsAttachment() throws Exception {
+        // When
+        MvcResult result = mockMvc.perform(get("/api/v1/orders/export")
+                .param("shopId", shopId.toString())
+                .param("from", "2024-05-01T00:00:00")
+                .param("to", "2024-06-01T00:00:00")
+                .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string("Content-Disposition",
+                        "attachment; filename=\"orders-" + shopId + "-2024-05-01.csv\""))
+                .andExpect(content().string(startsWith("order_id,customer_id,shop_id")));
+    }
+
+    @Test
+    void exportOrders_EmptyRange() throws Exception {
+        mockMvc.perform(get("/api/v1/orders/export")
+                .param("shopId", shopId.toString())
+                .param("from", "2024-06-01T00:00:00")
+                .param("to", "2024-05-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportOrders_UnknownFormat() throws Exception {
+        mockMvc.perform(get("/api/v1/orders/export")
+                .param("shopId", shopId.toString())
+                .param("from", "2024-05-01T00:00:00")
+                .param("to", "2024-06-01T00:00:00")
+                .param("format", "xlsx"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamOrderEvents_SnapshotThenStatusChanges() throws Exception {
+        // Given
+        Order order = new Order();
+        order.setId(orderId);
+        order.setCustomerId(customerId);
+        order.setShopId(shopId);
+        order.setStatus(OrderStatus.PAID);
+        order.setTotalAmount(Money.parse("13.00"));
+        order.setOrderTime(LocalDateTime.now());
+        when(orderRepository.findById(orderId)).thenReturn(java.util.Optional.of(order));
+
+        OrderStatusChange change = mock(OrderStatusChange.class);
+        when(change.previousStatus()).thenReturn(OrderStatus.PAID);
+        when(change.toOrder()).thenAnswer(invocation -> {
+            order.setStatus(OrderStatus.PREPARING);
+            return order;
+        });
+        when(orderRepository.compareAndSetStatus(eq(orderId), eq(order.getOrderTime()), any(), eq(OrderStatus.PREPARING.name()), any()))
+                .thenReturn(java.util.Optional.of(change));
+
+        // When
+        MvcResult stream = mockMvc.perform(get("/api/v1/orders/{orderId}/events", orderId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(patch("/api/v1/orders/{orderId}/status", orderId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                        OrderStatusUpdateRequest.builder().status(OrderStatus.PREPARING).build())))
+                .andExpect(status().isOk());
+
+        // Then
+        // An event is written in parts, so wait for its data rather than its name
+        String events = awaitEvents(stream, "\"status\":\"PREPARING\",\"previousStatus\":\"PAID\"");
+        assertThat(stream.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        assertThat(events).contains("event:snapshot", "\"status\":\"PAID\"");
+        assertThat(events.indexOf("event:status")).isGreaterThan(events.indexOf("event:snapshot"));
+        assertThat(events).contains("\"status\":\"PREPARING\",\"previousStatus\":\"PAID\"");
+    }
+
+    @Test
+    void streamOrderEvents_OrderNotFound() throws Exception {
+        when(orderRepository.findById(any())).thenReturn(java.util.Optional.empty());
+
+        mockMvc.perform(get("/api/v1/orders/{orderId}/events", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void streamCustomerOrderEvents_ResumesAfterLastEventId() throws Exception {
+        // Given
+        MvcResult first = mockMvc.perform(get("/api/v1/orders/customers/{customerId}/events", customerId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        orderStatusHub.publishAfterCommit(customerOrder(OrderStatus.PREPARING), OrderStatus.PAID);
+        String lastEventId = lastEventId(awaitEvents(first, "\"status\":\"PREPARING\""));
+        orderStatusHub.publishAfterCommit(customerOrder(OrderStatus.READY_FOR_PICKUP), OrderStatus.PREPARING);
+
+        // When
+        MvcResult resumed = mockMvc.perform(get("/api/v1/orders/customers/{customerId}/events", customerId)
+                .header("Last-Event-ID", lastEventId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String events = awaitEvents(resumed, "\"status\":\"READY_FOR_PICKUP\"");
+        assertThat(events).contains("\"status\":\"READY_FOR_PICKUP\"").doesNotContain("\"status\":\"PREPARING\"");
+    }
+
+    @Test
+    void streamCustomerOrderEvents_ConcurrentPublishes_ArriveInIdOrderWithoutGaps() throws Exception {
+        // Given
+        MvcResult live = mockMvc.perform(get("/api/v1/orders/customers/{customerId}/events", customerId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        orderStatusHub.publishAfterCommit(customerOrder(OrderStatus.PREPARING), OrderStatus.PAID);
+        String lastEventId = lastEventId(awaitEvents(live, "event:status"));
+        int publishers = 4;
+        int eventsEach = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(publishers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> publishing = new ArrayList<>();
+        for (int i = 0; i < publishers; i++) {
+            publishing.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < eventsEach; j++) {
+                    orderStatusHub.publishAfterCommit(customerOrder(OrderStatus.READY_FOR_PICKUP), OrderStatus.PREPARING);
+                }
+                return null;
+            }));
+        }
+
+        // When: a second stream resumes while the events are being published
+        start.countDown();
+        MvcResult resumed = mockMvc.perform(get("/api/v1/orders/customers/{customerId}/events", customerId)
+                .header("Last-Event-ID", lastEventId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        for (Future<?> future : publishing) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        List<Long> liveIds = eventSequences(awaitEventCount(live, 1 + publishers * eventsEach));
+        List<Long> resumedIds = eventSequences(awaitEventCount(resumed, publishers * eventsEach));
+        assertThat(liveIds).hasSize(1 + publishers * eventsEach).isSorted().doesNotHaveDuplicates();
+        assertThat(resumedIds).isEqualTo(liveIds.subList(1, liveIds.size()));
+    }
+
+    @Test
+    void streamCustomerOrderEvents_UnknownLastEventId_AsksToResync() throws Exception {
+        MvcResult resumed = mockMvc.perform(get("/api/v1/orders/customers/{customerId}/events", customerId)
+                .header("Last-Event-ID", "elsewhere-42"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(awaitEvents(resumed, "event:resync")).contains("event:resync");
+    }
+
+    @Test
+    void getShopOrderStats_ServedFromLiveCounters() throws Exception {
+        // Given
+        shopOrderStats.orderCreatedAfterCommit(Order.builder()
+                .id(orderId)
+                .shopId(shopId)
+                .status(OrderStatus.PAID)
+                .totalAmount(Money.parse("12.40"))
+                .orderTime(LocalDateTime.now())
+                .build());
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/shops/{shopId}/orders/stats", shopId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.shopId").value(shopId.toString()))
+                .andExpect(jsonPath("$.openOrders.PAID").value(1))
+                .andExpect(jsonPath("$.openOrdersTotal").value(1))
+                .andExpect(jsonPath("$.ordersToday").value(1))
+                .andExpect(jsonPath("$.revenueToday").value(12.40))
+                .andExpect(jsonPath("$.averageTicket").value(12.40));
+    }
+
+    private Order customerOrder(OrderStatus status) {
+        return Order.builder()
+                .id(orderId)
+                .customerId(customerId)
+                .shopId(shopId)
+                .status(status)
+                .build();
+    }
+
+    // Events are written by the hub's delivery threads, after the request that caused them returned
+    private static String awaitEvents(MvcResult stream, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String events = stream.getResponse().getContentAsString();
+        while (!events.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            events = stream.getResponse().getContentAsString();
+        }
+        return events;
+    }
+
+    private static String awaitEventCount(MvcResult stream, int count) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String events = stream.getResponse().getContentAsString();
+        while (eventSequences(events).size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            events = stream.getResponse().getContentAsString();
+        }
+        return events;
+    }
+
+    // Sequence part of each event id, in the order the events were written
+    private static List<Long> eventSequences(String events) {
+        Matcher matcher = Pattern.compile("id:\\S+-(\\d+)").matcher(events);
+        List<Long> sequences = new ArrayList<>();
+        while (matcher.find()) {
+            sequences.add(Long.parseLong(matcher.group(1)));
+        }
+        return sequences;
+    }
+
+    private static String lastEventId(String events) {
+        Matcher matcher = Pattern.compile("id:(\\S+)").matcher(events);
+        String id = null;
+        while (matcher.find()) {
+            id = matcher.group(1);
+        }
+        assertThat(id).isNotNull();
+        return id;
+    }
 }
@@ -0,0 +1,64 @@
+package com.ioidigital.orderservice.entity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ioidigital.orderservice.dto.OrderItemResponse;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void parse_ReadsPlainDecimalsAndRoundsExtraDigitsHalfUp() {
+        assertEquals(450, Money.parse("4.5").minorUnits());
+        assertEquals(400, Money.parse("4").minorUnits());
+        assertEquals(-1205, Money.parse("-12.05").minorUnits());
+        assertEquals(1, Money.parse("0.005").minorUnits());
+        assertEquals(450, Money.parse("4.5E0").minorUnits());
+        assertThrows(NumberFormatException.class, () -> Money.parse("4,50"));
+        assertThrows(NumberFormatException.class, () -> Money.parse(""));
+    }
+
+    @Test
+    void of_RoundsToTheCentAndConvertsBack() {
+        assertEquals(Money.ofMinor(1000), Money.of(new BigDecimal("9.995")));
+        assertEquals(new BigDecimal("9.00"), Money.ofMinor(900).toBigDecimal());
+        assertEquals("-0.05", Money.ofMinor(-5).toString());
+        assertEquals("-92233720368547758.08", Money.ofMinor(Long.MIN_VALUE).toString());
+    }
+
+    @Test
+    void arithmetic_StaysInCentsAndFailsOnOverflow() {
+        Money latte = Money.parse("4.50");
+
+        assertEquals(Money.parse("13.50"), latte.times(3));
+        assertEquals(Money.parse("8.70"), latte.plus(Money.parse("4.20")));
+        assertEquals(Money.parse("0.30"), latte.minus(Money.parse("4.20")));
+        assertEquals(Money.parse("5.88"), Money.parse("11.75").dividedBy(2));
+        assertEquals(Money.parse("-5.88"), Money.parse("-11.75").dividedBy(2));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)));
+    }
+
+    @Test
+    void json_WritesTwoDecimalsAndReadsNumbersOrStrings() throws Exception {
+        OrderItemResponse item = new OrderItemResponse();
+        item.setMenuItemId(UUID.fromString("a0000000-0000-0000-0000-000000000001"));
+        item.setItemName("Latte");
+        item.setQuantity(2);
+        item.setUnitPrice(Money.parse("4.5"));
+        item.setTotalPrice(Money.parse("9"));
+
+        String json = objectMapper.writeValueAsString(item);
+
+        assertTrue(json.contains("\"unitPrice\":4.50"), json);
+        assertTrue(json.contains("\"totalPrice\":9.00"), json);
+        assertEquals(item, objectMapper.readValue(json, OrderItemResponse.class));
+        assertEquals(Money.parse("9.00"), objectMapper.readValue("9", Money.class));
+        assertEquals(Money.parse("4.50"), objectMapper.readValue("\"4.5\"", Money.class));
+    }
+}
@@ -0,0 +1,128 @@
+package com.ioidigital.orderservice.repository;
+
+import com.ioidigital.orderservice.entity.OrderEvent;
+import com.ioidigital.orderservice.entity.OrderEventStatus;
+import com.ioidigital.orderservice.entity.OrderEventType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class OrderEventRepositoryTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("order.outbox.relay.enabled", () -> "false");
+    }
+
+    @Autowired
+    private OrderEventRepository orderEventRepository;
+
+    private final UUID shopId = UUID.randomUUID();
+    private final UUID otherShopId = UUID.randomUUID();
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        orderEventRepository.deleteAll();
+        now = LocalDateTime.now();
+    }
+
+    @Test
+    void findDeliverable_WaitsForEarlierEventsOfTheSameShop() {
+        UUID orderId = UUID.randomUUID();
+        OrderEvent created = save(shopId, orderId, 0, OrderEventStatus.PENDING);
+        OrderEvent otherShop = save(otherShopId, UUID.randomUUID(), 0, OrderEventStatus.PENDING);
+        OrderEvent otherOrder = save(shopId, UUID.randomUUID(), 0, OrderEventStatus.PENDING);
+        save(shopId, orderId, 1, OrderEventStatus.PENDING);
+
+        assertThat(deliverable()).containsExactly(created.getId(), otherShop.getId());
+
+        created.setStatus(OrderEventStatus.PUBLISHED);
+        orderEventRepository.flush();
+        assertThat(deliverable()).containsExactly(otherShop.getId(), otherOrder.getId());
+    }
+
+    @Test
+    void findDeliverable_SkipsEventsWaitingForRetryAndTheirShops() {
+        OrderEvent retrying = save(shopId, UUID.randomUUID(), 0, OrderEventStatus.PENDING);
+        retrying.setNextAttemptAt(now.plusMinutes(1));
+        save(shopId, UUID.randomUUID(), 0, OrderEventStatus.PENDING);
+        save(otherShopId, UUID.randomUUID(), 0, OrderEventStatus.FAILED);
+        OrderEvent afterGivenUp = save(otherShopId, UUID.randomUUID(), 0, OrderEventStatus.PENDING);
+        orderEventRepository.flush();
+
+        assertThat(deliverable()).containsExactly(afterGivenUp.getId());
+    }
+
+    @Test
+    void findByShopIdInAndStatus_ReturnsPendingEventsOfTheShopsInSequenceOrder() {
+        OrderEvent first = save(shopId, UUID.randomUUID(), 0, OrderEventStatus.PENDING);
+        save(otherShopId, UUID.randomUUID(), 0, OrderEventStatus.PENDING);
+        save(shopId, UUID.randomUUID(), 0, OrderEventStatus.PUBLISHED);
+        OrderEvent second = save(shopId, first.getOrderId(), 1, OrderEventStatus.PENDING);
+
+        List<Long> pending = orderEventRepository.findByShopIdInAndStatusOrderBySequenceNumber(List.of(shopId),
+                        OrderEventStatus.PENDING, Limit.of(10)).stream()
+                .map(OrderEvent::getId)
+                .toList();
+
+        assertThat(pending).containsExactly(first.getId(), second.getId());
+    }
+
+    @Test
+    void deleteByStatusAndPublishedAtBefore_RemovesOnlyOldPublishedEvents() {
+        OrderEvent old = save(shopId, UUID.randomUUID(), 0, OrderEventStatus.PUBLISHED);
+        old.setPublishedAt(now.minusDays(8));
+        OrderEvent recent = save(shopId, UUID.randomUUID(), 0, OrderEventStatus.PUBLISHED);
+        recent.setPublishedAt(now.minusDays(1));
+        OrderEvent pending = save(shopId, UUID.randomUUID(), 0, OrderEventStatus.PENDING);
+        orderEventRepository.flush();
+
+        int deleted = orderEventRepository.deleteByStatusAndPublishedAtBefore(OrderEventStatus.PUBLISHED, now.minusDays(7));
+
+        assertThat(deleted).isEqualTo(1);
+        assertThat(orderEventRepository.findAll()).extracting(OrderEvent::getId)
+                .containsExactlyInAnyOrder(recent.getId(), pending.getId());
+    }
+
+    private List<Long> deliverable() {
+        return orderEventRepository.findDeliverable(OrderEventStatus.PENDING, now, Limit.of(10)).stream()
+                .map(OrderEvent::getId)
+                .toList();
+    }
+
+    private OrderEvent save(UUID shopId, UUID orderId, long orderVersion, OrderEventStatus status) {
+        return orderEventRepository.saveAndFlush(OrderEvent.builder()
+                .orderId(orderId)
+                .shopId(shopId)
+                .orderVersion(orderVersion)
+                .eventType(orderVersion == 0 ? OrderEventType.ORDER_CREATED : OrderEventType.ORDER_STATUS_CHANGED)
+                .payload("{}")
+                .status(status)
+                .createdAt(now)
+                .build());
+    }
+}
@@ -0,0 +1,281 @@
+package com.ioidigital.orderservice.repository;
+
+import com.ioidigital.orderservice.dto.OrderCursor;
+import com.ioidigital.orderservice.entity.OrderStatus;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every query method of {@link OrderRepository}, captures the SQL Hibernate sends and checks
+ * its generic plan (the one used for any parameter values) reads orders through an index.
+ * Sequential scans are disabled so the planner does not prefer them just because the table is empty,
+ * and partition pruning is off so the plan shows how every partition is read.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.ioidigital.orderservice.repository.OrderQueryPlanTest$CapturingStatementInspector")
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class OrderQueryPlanTest {
+
+    private static final Pattern ORDERS_PARTITION = Pattern.compile("\\borders_p\\d{4}_\\d{2}\\b");
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final UUID id = UUID.randomUUID();
+    private final LocalDateTime time = LocalDateTime.now();
+    private final PageRequest newestFirst = PageRequest.of(1, 10, Sort.by("orderTime").descending());
+
+    @BeforeEach
+    void setUp() {
+        CapturingStatementInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void findAllSummaries_UsesIndex() {
+        assertIndexScans(repository -> repository.findAllSummaries(newestFirst));
+    }
+
+    @Test
+    void findByCustomerId_UsesIndex() {
+        assertIndexScans(repository -> repository.findByCustomerId(id, newestFirst));
+    }
+
+    @Test
+    void findByShopId_UsesIndex() {
+        assertIndexScans(repository -> repository.findByShopId(id, newestFirst));
+    }
+
+    @Test
+    void findByStatus_UsesIndex() {
+        assertIndexScans(repository -> repository.findByStatus(OrderStatus.PREPARING, newestFirst));
+    }
+
+    @Test
+    void keysetQueries_UseIndexWithoutSorting() {
+        OrderCursor cursor = OrderCursor.START;
+        assertIndexScansWithoutSort(repository ->
+                repository.findAllBefore(cursor.getOrderTime(), cursor.getId(), Limit.of(10)));
+        assertIndexScansWithoutSort(repository ->
+                repository.findByCustomerIdBefore(id, cursor.getOrderTime(), cursor.getId(), Limit.of(10)));
+        assertIndexScansWithoutSort(repository ->
+                repository.findByShopIdBefore(id, cursor.getOrderTime(), cursor.getId(), Limit.of(10)));
+        assertIndexScansWithoutSort(repository ->
+                repository.findByStatusBefore(OrderStatus.PAID, cursor.getOrderTime(), cursor.getId(), Limit.of(10)));
+    }
+
+    @Test
+    void findActiveByShopId_UsesPartialIndex() {
+        List<String> plans = explainCaptured(repository -> repository.findActiveByShopId(id, Limit.of(50)));
+        List<String> partialIndexes = partitionIndexesOf("idx_orders_active_shop_id_order_time");
+
+        assertThat(plans).allSatisfy(plan -> assertThat(partialIndexes).anyMatch(plan::contains));
+    }
+
+    @Test
+    void keysetQueries_CanSkipPartitionsNewerThanCursor() {
+        OrderCursor cursor = OrderCursor.START;
+        assertPrunesPartitions(repository ->
+                repository.findAllBefore(cursor.getOrderTime(), cursor.getId(), Limit.of(10)));
+        assertPrunesPartitions(repository ->
+                repository.findByCustomerIdBefore(id, cursor.getOrderTime(), cursor.getId(), Limit.of(10)));
+        assertPrunesPartitions(repository ->
+                repository.findByShopIdBefore(id, cursor.getOrderTime(), cursor.getId(), Limit.of(10)));
+        assertPrunesPartitions(repository ->
+                repository.findByStatusBefore(OrderStatus.PAID, cursor.getOrderTime(), cursor.getId(), Limit.of(10)));
+    }
+
+    @Test
+    void statsAggregates_UseIndex() {
+        assertIndexScans(repository -> repository.countByShopAndStatus(List.of(OrderStatus.PENDING, OrderStatus.PAID)));
+        assertIndexScans(repository -> repository.sumSalesByShopSince(time));
+        assertPrunesPartitions(repository -> repository.sumSalesByShopSince(time));
+    }
+
+    @Test
+    void itemLookups_OnlySearchTheOrdersPartitions() {
+        assertPrunesPartitions(repository -> orderItemRepository.findByOrderIdAndOrderTime(id, time));
+        assertPrunesPartitions(repository ->
+                orderItemRepository.findByOrderIdInAndOrderTimeBetween(Set.of(id), time.minusDays(1), time));
+    }
+
+    @Test
+    void statusUpdates_UseIndex() {
+        statusUpdates().forEach(this::assertIndexScans);
+    }
+
+    @Test
+    void statusUpdates_OnlyReadTheOrdersPartition() {
+        statusUpdates().forEach(this::assertScansOnePartition);
+    }
+
+    private List<Consumer<OrderRepository>> statusUpdates() {
+        return List.of(
+                repository -> repository.compareAndSetStatuses(Set.of(id), time, time, List.of(OrderStatus.PAID.name()),
+                        OrderStatus.PREPARING.name(), time),
+                repository -> repository.findStatusByIdAndOrderTime(id, time),
+                repository -> repository.compareAndSetStatus(id, time, List.of(OrderStatus.PAID.name()),
+                        OrderStatus.PREPARING.name(), time));
+    }
+
+    private void assertIndexScans(Consumer<OrderRepository> query) {
+        List<String> plans = explainCaptured(query);
+        assertThat(plans).allSatisfy(plan -> assertThat(plan).contains("Index").doesNotContain("Seq Scan"));
+    }
+
+    private void assertIndexScansWithoutSort(Consumer<OrderRepository> query) {
+        List<String> plans = explainCaptured(query);
+        assertThat(plans).allSatisfy(plan -> assertThat(plan).contains("Index").doesNotContain("Seq Scan")
+                .doesNotContain("Sort"));
+    }
+
+    // With NULL parameters every partition is pruned at executor startup, which shows the query
+    // carries a partition key condition Postgres can use to skip partitions for real values too
+    private void assertPrunesPartitions(Consumer<OrderRepository> query) {
+        List<String> plans = explainCaptured(query, true);
+        assertThat(plans).allSatisfy(plan -> assertThat(plan).contains("Subplans Removed"));
+    }
+
+    // Planned for this test's order (every uuid parameter is its id, every timestamp its time), the
+    // statements name exactly one partition of orders: the one holding the order
+    private void assertScansOnePartition(Consumer<OrderRepository> query) {
+        List<String> plans = explainCaptured(query, true, true);
+        assertThat(plans).allSatisfy(plan -> assertThat(ORDERS_PARTITION.matcher(plan).results()
+                .map(MatchResult::group).distinct()).hasSize(1));
+    }
+
+    // The index itself on an unpartitioned table, or the per-partition indexes created from it
+    private List<String> partitionIndexesOf(String index) {
+        List<String> indexes = new ArrayList<>(jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = to_regclass(?)", String.class, index));
+        indexes.add(index);
+        return indexes;
+    }
+
+    private List<String> explainCaptured(Consumer<OrderRepository> query) {
+        return explainCaptured(query, false);
+    }
+
+    private List<String> explainCaptured(Consumer<OrderRepository> query, boolean partitionPruning) {
+        return explainCaptured(query, partitionPruning, false);
+    }
+
+    // Runs the query, then EXPLAINs the generic plan of each statement it issued, or its plan for
+    // this test's order when withValues is set
+    private List<String> explainCaptured(Consumer<OrderRepository> query, boolean partitionPruning,
+                                         boolean withValues) {
+        CapturingStatementInspector.STATEMENTS.clear();
+        query.accept(orderRepository);
+        List<String> statements = new ArrayList<>(CapturingStatementInspector.STATEMENTS);
+        assertThat(statements).isNotEmpty();
+        return statements.stream().map(sql -> explainPlan(sql, partitionPruning, withValues)).toList();
+    }
+
+    private String explainPlan(String sql, boolean partitionPruning, boolean withValues) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET enable_seqscan = off");
+                statement.execute("SET plan_cache_mode = " + (withValues ? "force_custom_plan" : "force_generic_plan"));
+                statement.execute("SET enable_partition_pruning = " + partitionPruning);
+                int parameters = 0;
+                StringBuilder numbered = new StringBuilder();
+                for (char c : sql.toCharArray()) {
+                    if (c == '?') {
+                        numbered.append('$').append(++parameters);
+                    } else {
+                        numbered.append(c);
+                    }
+                }
+                statement.execute("PREPARE plan_under_test AS " + numbered);
+                try {
+                    String values = String.join(", ", withValues
+                            ? parameterValues(statement) : Collections.nCopies(parameters, "NULL"));
+                    StringBuilder plan = new StringBuilder();
+                    try (ResultSet rows = statement.executeQuery("EXPLAIN EXECUTE plan_under_test"
+                            + (parameters > 0 ? "(" + values + ")" : ""))) {
+                        while (rows.next()) {
+                            plan.append(rows.getString(1)).append('\n');
+                        }
+                    }
+                    return plan.toString();
+                } finally {
+                    statement.execute("DEALLOCATE plan_under_test");
+                    statement.execute("RESET enable_seqscan");
+                    statement.execute("RESET plan_cache_mode");
+                    statement.execute("RESET enable_partition_pruning");
+                }
+            }
+        });
+    }
+
+    // A literal for each parameter of the prepared statement, by its type; text parameters are statuses
+    private List<String> parameterValues(Statement statement) throws SQLException {
+        List<String> values = new ArrayList<>();
+        try (ResultSet types = statement.executeQuery("SELECT unnest(parameter_types)::text "
+                + "FROM pg_prepared_statements WHERE name = 'plan_under_test'")) {
+            while (types.next()) {
+                String type = types.getString(1);
+                values.add(type.equals("uuid") ? "'" + id + "'"
+                        : type.startsWith("timestamp") ? "'" + time + "'"
+                        : "'" + OrderStatus.PAID.name() + "'");
+            }
+        }
+        return values;
+    }
+
+    public static class CapturingStatementInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.ioidigital.orderservice.repository;
 
+import com.ioidigital.orderservice.dto.OrderCursor;
+import com.ioidigital.orderservice.entity.Money;
 import com.ioidigital.orderservice.entity.Order;
 import com.ioidigital.orderservice.entity.OrderStatus;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,14 +9,19 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 
@@ -57,18 +64,117 @@ public class OrderRepositoryTest {
         Order order1 = new Order();
         order1.setCustomerId(customerId1);
         order1.setShopId(shopId1);
-        order1.setTotalAmount(BigDecimal.valueOf(10.50));
+        order1.setTotalAmount(Money.parse("10.50"));
         order1.setStatus(OrderStatus.PAID);
-        order1.setOrderTime(LocalDateTime.now().minusHours(1));
+        order1.setOrderTime(LocalDateTime.now().minusHours(1).truncatedTo(ChronoUnit.MICROS));
         orderRepository.save(order1);
 
         Order order2 = new Order();
         order2.setCustomerId(customerId1);
         order2.setShopId(shopId2);
-        order2.setTotalAmount(BigDecimal.valueOf(15.00));
+        order2.setTotalAmount(Money.parse("15.00"));
         order2.setStatus(OrderStatus.PENDING);
-        order2.setOrderTime(LocalDateTime.now());
+        order2.setOrderTime(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
         orderRepository.save(order2);
     }
 
+
+    @Test
+    void findByCustomerIdBefore_SeeksPastCursorNewestFirst() {
+        List<OrderSummary> firstPage = orderRepository.findByCustomerIdBefore(customerId1,
+                OrderCursor.START.getOrderTime(), OrderCursor.START.getId(), Limit.of(1));
+
+        assertThat(firstPage).hasSize(1);
+        assertThat(firstPage.get(0).shopId()).isEqualTo(shopId2);
+
+        OrderCursor cursor = OrderCursor.after(firstPage.get(0));
+        List<OrderSummary> secondPage = orderRepository.findByCustomerIdBefore(customerId1,
+                cursor.getOrderTime(), cursor.getId(), Limit.of(1));
+
+        assertThat(secondPage).hasSize(1);
+        assertThat(secondPage.get(0).shopId()).isEqualTo(shopId1);
+    }
+
+    @Test
+    void findByShopId_ProjectsSummariesWithTotalCount() {
+        Page<OrderSummary> page = orderRepository.findByShopId(shopId1,
+                PageRequest.of(0, 10, Sort.by("orderTime").descending()));
+
+        assertThat(page.getTotalElements()).isEqualTo(1);
+        OrderSummary summary = page.getContent().get(0);
+        assertThat(summary.customerId()).isEqualTo(customerId1);
+        assertThat(summary.status()).isEqualTo(OrderStatus.PAID);
+        assertThat(summary.totalAmount()).isEqualTo(Money.parse("10.50"));
+    }
+
+    @Test
+    void compareAndSetStatuses_OnlyMovesOrdersInAllowedSourceStatuses() {
+        List<Order> orders = orderRepository.findAll();
+        List<UUID> ids = orders.stream().map(Order::getId).toList();
+        LocalDateTime from = orders.stream().map(Order::getOrderTime).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = orders.stream().map(Order::getOrderTime).max(Comparator.naturalOrder()).orElseThrow();
+
+        List<OrderStatusChange> notReady = orderRepository.compareAndSetStatuses(ids, from, to,
+                List.of(OrderStatus.PREPARING.name()), OrderStatus.READY_FOR_PICKUP.name(), LocalDateTime.now());
+        List<OrderStatusChange> preparing = orderRepository.compareAndSetStatuses(ids, from, to,
+                OrderStatus.sourcesOf(OrderStatus.PREPARING).stream().map(Enum::name).toList(), OrderStatus.PREPARING.name(),
+                LocalDateTime.now());
+
+        assertThat(notReady).isEmpty();
+        assertThat(preparing).extracting(OrderStatusChange::getId).containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(preparing).allSatisfy(change -> {
+            Order before = orders.stream().filter(order -> order.getId().equals(change.getId())).findFirst().orElseThrow();
+            assertThat(change.previousStatus()).isEqualTo(before.getStatus());
+            assertThat(change.toOrder().getStatus()).isEqualTo(OrderStatus.PREPARING);
+            assertThat(change.getVersion()).isEqualTo(before.getVersion() + 1);
+        });
+    }
+
+    @Test
+    void findActiveByShopId_ListsOrdersBeingWorkedOnOldestFirst() {
+        Order ready = new Order();
+        ready.setCustomerId(customerId1);
+        ready.setShopId(shopId1);
+        ready.setTotalAmount(Money.parse("4.00"));
+        ready.setStatus(OrderStatus.READY_FOR_PICKUP);
+        ready.setOrderTime(LocalDateTime.now().minusMinutes(30).truncatedTo(ChronoUnit.MICROS));
+        orderRepository.save(ready);
+        Order completed = new Order();
+        completed.setCustomerId(customerId1);
+        completed.setShopId(shopId1);
+        completed.setTotalAmount(Money.parse("6.00"));
+        completed.setStatus(OrderStatus.COMPLETED);
+        completed.setOrderTime(LocalDateTime.now().minusHours(2).truncatedTo(ChronoUnit.MICROS));
+        orderRepository.save(completed);
+
+        List<OrderSummary> active = orderRepository.findActiveByShopId(shopId1, Limit.of(10));
+
+        assertThat(active).extracting(OrderSummary::status)
+                .containsExactly(OrderStatus.PAID, OrderStatus.READY_FOR_PICKUP);
+        assertThat(orderRepository.findActiveByShopId(shopId2, Limit.of(10))).isEmpty();
+    }
+
+    @Test
+    void shopAggregates_CountOpenOrdersAndSumSalesWithoutCancelled() {
+        Order cancelled = new Order();
+        cancelled.setCustomerId(customerId1);
+        cancelled.setShopId(shopId1);
+        cancelled.setTotalAmount(Money.parse("99.00"));
+        cancelled.setStatus(OrderStatus.CANCELLED);
+        cancelled.setOrderTime(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        orderRepository.save(cancelled);
+
+        List<ShopStatusCount> counts = orderRepository.countByShopAndStatus(
+                List.of(OrderStatus.PENDING, OrderStatus.PAID, OrderStatus.PREPARING, OrderStatus.READY_FOR_PICKUP));
+        List<ShopSales> sales = orderRepository.sumSalesByShopSince(LocalDateTime.now().minusHours(2));
+
+        assertThat(counts).containsExactlyInAnyOrder(
+                new ShopStatusCount(shopId1, OrderStatus.PAID, 1),
+                new ShopStatusCount(shopId2, OrderStatus.PENDING, 1));
+        assertThat(sales).hasSize(2);
+        ShopSales shop1Sales = sales.stream().filter(s -> s.shopId().equals(shopId1)).findFirst().orElseThrow();
+        assertThat(shop1Sales.orders()).isEqualTo(1);
+        assertThat(shop1Sales.revenue()).isEqualByComparingTo("10.50");
+    }
+
 }
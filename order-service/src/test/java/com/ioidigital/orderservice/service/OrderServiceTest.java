@@ -1,36 +1,66 @@
 package com.ioidigital.orderservice.service;
 
+import com.ioidigital.orderservice.dto.BatchOrderRequest;
+import com.ioidigital.orderservice.dto.BatchOrderResponse;
+import com.ioidigital.orderservice.dto.BulkStatusUpdateRequest;
+import com.ioidigital.orderservice.dto.BulkStatusUpdateResponse;
+import com.ioidigital.orderservice.dto.MenuItemDetails;
 import com.ioidigital.orderservice.dto.OrderItemDto;
 import com.ioidigital.orderservice.dto.OrderRequest;
 import com.ioidigital.orderservice.dto.OrderResponse;
 import com.ioidigital.orderservice.dto.OrderStatusUpdateRequest;
+import com.ioidigital.orderservice.entity.Money;
 import com.ioidigital.orderservice.entity.Order;
 import com.ioidigital.orderservice.entity.OrderItem;
 import com.ioidigital.orderservice.entity.OrderStatus;
 import com.ioidigital.orderservice.exception.InvalidOrderException;
 import com.ioidigital.orderservice.exception.ResourceNotFoundException;
 import com.ioidigital.orderservice.repository.OrderItemRepository;
+import com.ioidigital.orderservice.repository.OrderItemSummary;
 import com.ioidigital.orderservice.repository.OrderRepository;
+import com.ioidigital.orderservice.repository.OrderStatusChange;
+import com.ioidigital.orderservice.repository.OrderSummary;
+import com.ioidigital.orderservice.service.cache.OrderDetailsCache;
+import com.ioidigital.orderservice.service.cache.OrderEntityCache;
+import com.ioidigital.orderservice.service.eta.OrderEtaEstimator;
+import com.ioidigital.orderservice.service.external.DownstreamCalls;
 import com.ioidigital.orderservice.service.external.MenuServiceClient;
 import com.ioidigital.orderservice.service.external.ShopServiceClient;
 import com.ioidigital.orderservice.service.impl.OrderServiceImpl;
+import com.ioidigital.orderservice.service.metrics.OrderMetrics;
+import com.ioidigital.orderservice.service.outbox.OrderOutbox;
+import com.ioidigital.orderservice.service.stats.ShopOrderStats;
+import com.ioidigital.orderservice.service.tracking.OrderStatusHub;
 import org.junit.jupiter.api.BeforeEach;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
 
-import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -49,6 +79,17 @@ class OrderServiceTest {
     @MockBean
     private ShopServiceClient shopServiceClient;
 
+    @MockBean
+    private OrderOutbox orderOutbox;
+
+    private PlatformTransactionManager transactionManager;
+
+    private OrderStatusHub orderStatusHub;
+
+    private ShopOrderStats shopOrderStats;
+
+    private SimpleMeterRegistry meterRegistry;
+
     private OrderService orderService;
 
     private UUID testOrderId;
@@ -58,7 +99,16 @@ class OrderServiceTest {
 
     @BeforeEach
     void setUp() {
-        orderService = new OrderServiceImpl(orderRepository, orderItemRepository, menuServiceClient, shopServiceClient);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        orderStatusHub = mock(OrderStatusHub.class);
+        shopOrderStats = new ShopOrderStats(orderRepository, transactionManager);
+        meterRegistry = new SimpleMeterRegistry();
+        orderService = new OrderServiceImpl(orderRepository, orderItemRepository, menuServiceClient, shopServiceClient,
+                orderOutbox, new DownstreamCalls(new SimpleAsyncTaskExecutor(), Duration.ofSeconds(2), Duration.ofSeconds(3)),
+                new OrderDetailsCache(Duration.ofSeconds(30), 100, new SimpleMeterRegistry()), mock(OrderEntityCache.class), orderStatusHub,
+                new OrderEtaEstimator(0.2, Duration.ofMinutes(2), 0.1), shopOrderStats,
+                new OrderMetrics(meterRegistry), transactionManager);
         testOrderId = UUID.randomUUID();
         testCustomerId = UUID.randomUUID();
         testShopId = UUID.randomUUID();
@@ -79,8 +129,8 @@ class OrderServiceTest {
                 .build();
 
         when(shopServiceClient.doesShopExist(any())).thenReturn(true);
-        when(menuServiceClient.getMenuItemPrice(any())).thenReturn(BigDecimal.valueOf(10.99));
-        when(menuServiceClient.getMenuItemName(any())).thenReturn("Test Coffee");
+        when(menuServiceClient.getMenuItems(any())).thenReturn(Map.of(testMenuItemId,
+                new MenuItemDetails(testMenuItemId, "Test Coffee", Money.parse("10.99"), true)));
         when(shopServiceClient.addOrderToQueue(any(), any())).thenReturn(1);
         when(orderRepository.save(any())).thenAnswer(invocation -> {
             Order order = invocation.getArgument(0);
@@ -95,7 +145,15 @@ class OrderServiceTest {
         assertEquals(testCustomerId, response.getCustomerId());
         assertEquals("PAID", response.getStatus());
         verify(orderRepository).save(any(Order.class));
-        verify(orderItemRepository).save(any(OrderItem.class));
+        verify(shopServiceClient).addOrderToQueue(eq(testShopId), notNull());
+        verify(orderItemRepository).saveAll(anyList());
+        assertEquals(1, shopOrderStats.statsOf(testShopId).getOpenOrders().get(OrderStatus.PAID));
+        verify(orderItemRepository, never()).save(any(OrderItem.class));
+        verify(orderOutbox).orderCreated(any(Order.class));
+        for (String phase : List.of("shop-validation", "menu-lookup", "pricing", "queue", "order-save", "item-save", "outbox")) {
+            assertEquals(1, meterRegistry.get("order.phase")
+                    .tags("operation", "create", "phase", phase, "outcome", "success").timer().count(), phase);
+        }
     }
 
     @Test
@@ -107,9 +165,63 @@ class OrderServiceTest {
                 .build();
 
         when(shopServiceClient.doesShopExist(any())).thenReturn(false);
-        when(menuServiceClient.getMenuItemPrice(any())).thenReturn(BigDecimal.valueOf(10.99));
-        when(menuServiceClient.getMenuItemName(any())).thenReturn("Test Coffee");
         assertThrows(ResourceNotFoundException.class, () -> orderService.createOrder(orderRequest));
+        assertEquals(1, meterRegistry.get("order.phase")
+                .tags("operation", "create", "phase", "shop-validation", "outcome", "error").timer().count());
+    }
+
+    @Test
+    void createOrder_UnavailableMenuItem_ThrowsException() {
+        OrderRequest orderRequest = OrderRequest.builder()
+                .shopId(testShopId)
+                .customerId(testCustomerId)
+                .items(Arrays.asList(OrderItemDto.builder().menuItemId(testMenuItemId).quantity(1).build()))
+                .build();
+
+        when(shopServiceClient.doesShopExist(any())).thenReturn(true);
+        when(menuServiceClient.getMenuItems(any())).thenReturn(Map.of(testMenuItemId,
+                new MenuItemDetails(testMenuItemId, "Seasonal Latte", Money.parse("5.20"), false)));
+
+        assertThrows(InvalidOrderException.class, () -> orderService.createOrder(orderRequest));
+    }
+
+    @Test
+    void createOrders_ValidatesOncePerBatchAndReportsEachOrder() {
+        // Given
+        UUID unknownShopId = UUID.randomUUID();
+        OrderItemDto validItem = OrderItemDto.builder().menuItemId(testMenuItemId).quantity(2).build();
+        OrderItemDto unknownItem = OrderItemDto.builder().menuItemId(UUID.randomUUID()).quantity(1).build();
+        BatchOrderRequest batchRequest = BatchOrderRequest.builder()
+                .orders(List.of(
+                        OrderRequest.builder().shopId(testShopId).customerId(testCustomerId).items(List.of(validItem)).build(),
+                        OrderRequest.builder().shopId(testShopId).customerId(testCustomerId).items(List.of(unknownItem)).build(),
+                        OrderRequest.builder().shopId(unknownShopId).customerId(testCustomerId).items(List.of(validItem)).build(),
+                        OrderRequest.builder().shopId(testShopId).customerId(testCustomerId).items(List.of(validItem)).build()))
+                .build();
+
+        when(shopServiceClient.doesShopExist(testShopId)).thenReturn(true);
+        when(shopServiceClient.doesShopExist(unknownShopId)).thenReturn(false);
+        when(menuServiceClient.getMenuItems(any())).thenReturn(Map.of(testMenuItemId,
+                new MenuItemDetails(testMenuItemId, "Test Coffee", Money.parse("4.50"), true)));
+        when(shopServiceClient.addOrderToQueue(eq(testShopId), any())).thenReturn(1, 2);
+
+        // When
+        BatchOrderResponse response = orderService.createOrders(batchRequest);
+
+        // Then
+        assertEquals(2, response.getSucceeded());
+        assertEquals(2, response.getFailed());
+        assertTrue(response.getResults().get(0).isSuccess());
+        assertEquals(Money.parse("9.00"), response.getResults().get(0).getOrder().getTotalAmount());
+        assertFalse(response.getResults().get(1).isSuccess());
+        assertTrue(response.getResults().get(1).getError().startsWith("Menu item not found"));
+        assertFalse(response.getResults().get(2).isSuccess());
+        assertTrue(response.getResults().get(3).isSuccess());
+        verify(shopServiceClient, times(1)).doesShopExist(testShopId);
+        verify(menuServiceClient, times(1)).getMenuItems(any());
+        verify(orderRepository, times(1)).saveAll(anyList());
+        verify(orderItemRepository, times(1)).saveAll(anyList());
+        verify(orderOutbox, times(2)).orderCreated(any(Order.class));
     }
 
     @Test
@@ -132,6 +244,88 @@ class OrderServiceTest {
         assertEquals("PAID", response.getStatus());
     }
 
+    @Test
+    void getOrder_ReportsLiveQueuePosition() {
+        // Given
+        Order order = new Order();
+        order.setId(testOrderId);
+        order.setShopId(testShopId);
+        order.setStatus(OrderStatus.PAID);
+        order.setQueuePosition(5);
+
+        when(orderRepository.findById(testOrderId)).thenReturn(Optional.of(order));
+        when(shopServiceClient.getQueuePosition(testShopId, testOrderId)).thenReturn(2);
+
+        // When
+        OrderResponse response = orderService.getOrderDetails(testOrderId);
+
+        // Then
+        assertEquals(2, response.getQueuePosition());
+    }
+
+    @Test
+    void getOrder_RepeatedPolls_QueryDatabaseOnce() {
+        // Given
+        Order order = new Order();
+        order.setId(testOrderId);
+        order.setShopId(testShopId);
+        order.setStatus(OrderStatus.PAID);
+
+        when(orderRepository.findById(testOrderId)).thenReturn(Optional.of(order));
+        when(shopServiceClient.getQueuePosition(testShopId, testOrderId)).thenReturn(3, 1);
+
+        // When
+        OrderResponse first = orderService.getOrderDetails(testOrderId);
+        OrderResponse second = orderService.getOrderDetails(testOrderId);
+
+        // Then
+        verify(orderRepository, times(1)).findById(testOrderId);
+        assertEquals(3, first.getQueuePosition());
+        assertEquals(1, second.getQueuePosition());
+    }
+
+    @Test
+    void updateOrderStatus_EvictsCachedDetails() {
+        // Given
+        Order order = new Order();
+        order.setId(testOrderId);
+        order.setShopId(testShopId);
+        order.setStatus(OrderStatus.PAID);
+        order.setOrderTime(LocalDateTime.now());
+
+        stubStatusChange(order, OrderStatus.PREPARING);
+        assertEquals("PAID", orderService.getOrderDetails(testOrderId).getStatus());
+
+        // When
+        orderService.updateOrderStatus(testOrderId,
+                OrderStatusUpdateRequest.builder().status(OrderStatus.PREPARING).build());
+
+        // Then
+        assertEquals("PREPARING", orderService.getOrderDetails(testOrderId).getStatus());
+        // The update took the order's time from the cached details; only the two detail loads read the order
+        verify(orderRepository, times(2)).findById(testOrderId);
+        verify(orderRepository).compareAndSetStatus(eq(testOrderId), eq(order.getOrderTime()), any(), any(), any());
+    }
+
+    @Test
+    void updateOrderStatus_ReadyForPickup_LeavesQueue() {
+        // Given
+        Order order = new Order();
+        order.setId(testOrderId);
+        order.setShopId(testShopId);
+        order.setStatus(OrderStatus.PREPARING);
+
+        stubStatusChange(order, OrderStatus.READY_FOR_PICKUP);
+
+        // When
+        OrderResponse response = orderService.updateOrderStatus(testOrderId,
+                OrderStatusUpdateRequest.builder().status(OrderStatus.READY_FOR_PICKUP).build());
+
+        // Then
+        verify(shopServiceClient).removeOrderFromQueue(testShopId, testOrderId);
+        assertNull(response.getQueuePosition());
+    }
+
     @Test
     void getOrder_NonExistentOrder_ThrowsException() {
         // Given
@@ -146,13 +340,13 @@ class OrderServiceTest {
         // Given
         Order order = new Order();
         order.setId(testOrderId);
+        order.setShopId(testShopId);
         order.setStatus(OrderStatus.PAID);
 
         OrderStatusUpdateRequest updateRequest = new OrderStatusUpdateRequest();
         updateRequest.setStatus(OrderStatus.PREPARING);
 
-        when(orderRepository.findById(testOrderId)).thenReturn(Optional.of(order));
-        when(orderRepository.save(any())).thenReturn(order);
+        stubStatusChange(order, OrderStatus.PREPARING);
 
         // When
         OrderResponse response = orderService.updateOrderStatus(testOrderId, updateRequest);
@@ -160,6 +354,36 @@ class OrderServiceTest {
         // Then
         assertNotNull(response);
         assertEquals("PREPARING", response.getStatus());
+        verify(orderOutbox).orderStatusChanged(order, OrderStatus.PAID, null);
+        verify(orderStatusHub).publishAfterCommit(order, OrderStatus.PAID);
+        verify(orderRepository, never()).findStatusByIdAndOrderTime(any(), any());
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void updateOrderStatus_CompareAndSetRetriesAfterConcurrentChange() {
+        // Given
+        Order order = new Order();
+        order.setId(testOrderId);
+        order.setShopId(testShopId);
+        order.setStatus(OrderStatus.PAID);
+
+        OrderStatusChange change = mock(OrderStatusChange.class);
+        when(change.previousStatus()).thenReturn(OrderStatus.PAID);
+        when(change.toOrder()).thenReturn(order);
+        // First attempt misses (e.g. the row was briefly PENDING), the order is then found in an allowed status
+        when(orderRepository.compareAndSetStatus(eq(testOrderId), any(), any(), eq(OrderStatus.CANCELLED.name()), any()))
+                .thenReturn(Optional.empty(), Optional.of(change));
+        when(orderRepository.findById(testOrderId)).thenReturn(Optional.of(order));
+        when(orderRepository.findStatusByIdAndOrderTime(testOrderId, order.getOrderTime()))
+                .thenReturn(Optional.of(OrderStatus.PAID));
+
+        // When
+        orderService.updateOrderStatus(testOrderId, OrderStatusUpdateRequest.builder().status(OrderStatus.CANCELLED).build());
+
+        // Then
+        verify(orderRepository, times(2)).compareAndSetStatus(eq(testOrderId), any(), any(), any(), any());
+        verify(orderOutbox, times(1)).orderStatusChanged(order, OrderStatus.PAID, null);
     }
 
     @Test
@@ -173,6 +397,8 @@ class OrderServiceTest {
         updateRequest.setStatus(OrderStatus.PREPARING);
 
         when(orderRepository.findById(testOrderId)).thenReturn(Optional.of(order));
+        when(orderRepository.findStatusByIdAndOrderTime(testOrderId, order.getOrderTime()))
+                .thenReturn(Optional.of(order.getStatus()));
 
         // When & Then
         assertThrows(InvalidOrderException.class,
@@ -184,6 +410,7 @@ class OrderServiceTest {
         // Given
         Order order = new Order();
         order.setId(testOrderId);
+        order.setShopId(testShopId);
         order.setStatus(OrderStatus.PENDING);
 
         OrderStatusUpdateRequest orderStatusUpdateRequest = OrderStatusUpdateRequest
@@ -192,8 +419,7 @@ class OrderServiceTest {
                 .reason("Test cancellation")
                 .build();
 
-        when(orderRepository.findById(testOrderId)).thenReturn(Optional.of(order));
-        when(orderRepository.save(any())).thenReturn(order);
+        stubStatusChange(order, OrderStatus.CANCELLED);
 
         // When
         OrderResponse response = orderService.updateOrderStatus(testOrderId, orderStatusUpdateRequest);
@@ -217,20 +443,138 @@ class OrderServiceTest {
                 .build();
 
         when(orderRepository.findById(testOrderId)).thenReturn(Optional.of(order));
+        when(orderRepository.findStatusByIdAndOrderTime(testOrderId, order.getOrderTime()))
+                .thenReturn(Optional.of(order.getStatus()));
 
         // When & Then
         assertThrows(InvalidOrderException.class, () -> orderService.updateOrderStatus(testOrderId, orderStatusUpdateRequest));
     }
 
     @Test
-    void getCustomerOrders_Success() {
+    void updateOrderStatuses_OneConditionalUpdateAndRejectionReasons() {
+        // Given
+        Order preparing1 = new Order();
+        preparing1.setId(UUID.randomUUID());
+        preparing1.setShopId(testShopId);
+        preparing1.setStatus(OrderStatus.PREPARING);
+        preparing1.setOrderTime(LocalDateTime.now());
+        Order preparing2 = new Order();
+        preparing2.setId(UUID.randomUUID());
+        preparing2.setShopId(testShopId);
+        preparing2.setStatus(OrderStatus.PREPARING);
+        preparing2.setOrderTime(LocalDateTime.now());
+        Order completed = new Order();
+        completed.setId(UUID.randomUUID());
+        completed.setStatus(OrderStatus.COMPLETED);
+        completed.setOrderTime(LocalDateTime.now());
+        UUID missingId = UUID.randomUUID();
+
+        when(orderRepository.findAllById(any())).thenReturn(List.of(preparing1, preparing2, completed));
+        List<OrderStatusChange> changes = List.of(statusChange(preparing1, OrderStatus.READY_FOR_PICKUP),
+                statusChange(preparing2, OrderStatus.READY_FOR_PICKUP));
+        when(orderRepository.compareAndSetStatuses(any(), any(), any(), eq(List.of(OrderStatus.PREPARING.name())),
+                eq(OrderStatus.READY_FOR_PICKUP.name()), any()))
+                .thenReturn(changes);
+
+        // When
+        BulkStatusUpdateResponse response = orderService.updateOrderStatuses(BulkStatusUpdateRequest.builder()
+                .orderIds(List.of(preparing1.getId(), missingId, preparing2.getId(), completed.getId()))
+                .status(OrderStatus.READY_FOR_PICKUP)
+                .build());
+
+        // Then
+        assertEquals(List.of(preparing1.getId(), preparing2.getId()), response.getUpdated());
+        assertEquals(2, response.getRejected().size());
+        assertEquals(missingId, response.getRejected().get(0).getOrderId());
+        assertEquals("Cannot change status of a completed order", response.getRejected().get(1).getReason());
+        verify(orderRepository, never()).save(any());
+        verify(orderRepository, times(1)).compareAndSetStatuses(any(), any(), any(), any(), any(), any());
+        verify(shopServiceClient).removeOrderFromQueue(testShopId, preparing1.getId());
+        verify(orderOutbox, times(2)).orderStatusChanged(any(Order.class), eq(OrderStatus.PREPARING), any());
+        verify(orderStatusHub, times(2)).publishAfterCommit(any(Order.class), eq(OrderStatus.PREPARING));
+    }
+
+    @Test
+    void updateOrderStatuses_ConcurrentChange_RejectsOrdersNotUpdated() {
         // Given
+        Order paid = new Order();
+        paid.setId(UUID.randomUUID());
+        paid.setShopId(testShopId);
+        paid.setStatus(OrderStatus.PAID);
+        paid.setOrderTime(LocalDateTime.now());
+        Order pending = new Order();
+        pending.setId(UUID.randomUUID());
+        pending.setShopId(testShopId);
+        pending.setStatus(OrderStatus.PENDING);
+        pending.setOrderTime(LocalDateTime.now());
+
+        when(orderRepository.findAllById(any())).thenReturn(List.of(paid, pending));
+        OrderStatusChange change = statusChange(pending, OrderStatus.PREPARING);
+        when(orderRepository.compareAndSetStatuses(any(), any(), any(), any(), eq(OrderStatus.PREPARING.name()), any()))
+                .thenReturn(List.of(change));
+
+        // When
+        BulkStatusUpdateResponse response = orderService.updateOrderStatuses(BulkStatusUpdateRequest.builder()
+                .orderIds(List.of(paid.getId(), pending.getId()))
+                .status(OrderStatus.PREPARING)
+                .build());
+
+        // Then
+        assertEquals(List.of(pending.getId()), response.getUpdated());
+        assertEquals(paid.getId(), response.getRejected().get(0).getOrderId());
+        verify(orderOutbox, times(1)).orderStatusChanged(any(Order.class), any(), any());
+    }
+
+    @Test
+    void updateOrderStatuses_ChangedBetweenAllowedStatuses_RecordsTheStatusReplaced() {
+        // Given: read as PAID, then moved to PREPARING by another request before the bulk cancel
         Order order = new Order();
         order.setId(testOrderId);
-        order.setCustomerId(testCustomerId);
-        order.setStatus(OrderStatus.PREPARING);
+        order.setShopId(testShopId);
+        order.setStatus(OrderStatus.PAID);
+        order.setOrderTime(LocalDateTime.now());
+        order.setVersion(1L);
+        Order cancelled = Order.builder()
+                .id(testOrderId)
+                .shopId(testShopId)
+                .status(OrderStatus.CANCELLED)
+                .orderTime(order.getOrderTime())
+                .version(3L)
+                .build();
+        OrderStatusChange change = mock(OrderStatusChange.class);
+        when(change.getId()).thenReturn(testOrderId);
+        when(change.previousStatus()).thenReturn(OrderStatus.PREPARING);
+        when(change.toOrder()).thenReturn(cancelled);
+
+        shopOrderStats.orderCreatedAfterCommit(Order.builder()
+                .shopId(testShopId)
+                .status(OrderStatus.PREPARING)
+                .orderTime(order.getOrderTime())
+                .build());
+        when(orderRepository.findAllById(any())).thenReturn(List.of(order));
+        when(orderRepository.compareAndSetStatuses(any(), any(), any(), any(), eq(OrderStatus.CANCELLED.name()), any()))
+                .thenReturn(List.of(change));
 
-        Page<Order> orderPage = new PageImpl<>(Arrays.asList(order));
+        // When
+        BulkStatusUpdateResponse response = orderService.updateOrderStatuses(BulkStatusUpdateRequest.builder()
+                .orderIds(List.of(testOrderId))
+                .status(OrderStatus.CANCELLED)
+                .build());
+
+        // Then
+        assertEquals(List.of(testOrderId), response.getUpdated());
+        verify(orderOutbox).orderStatusChanged(same(cancelled), eq(OrderStatus.PREPARING), any());
+        verify(orderStatusHub).publishAfterCommit(same(cancelled), eq(OrderStatus.PREPARING));
+        assertEquals(0, shopOrderStats.statsOf(testShopId).getOpenOrders().get(OrderStatus.PREPARING));
+    }
+
+    @Test
+    void getCustomerOrders_Success() {
+        // Given
+        OrderSummary order = new OrderSummary(testOrderId, testCustomerId, testShopId, LocalDateTime.now(),
+                OrderStatus.PREPARING, Money.parse("10.00"), null, null);
+
+        Page<OrderSummary> orderPage = new PageImpl<>(Arrays.asList(order));
         when(orderRepository.findByCustomerId(eq(testCustomerId), any())).thenReturn(orderPage);
 
         // When
@@ -242,4 +586,51 @@ class OrderServiceTest {
         assertEquals(1, response.getContent().size());
         assertEquals(testOrderId, response.getContent().get(0).getOrderId());
     }
+
+    @Test
+    void getOrdersByShop_LoadsItemsForWholePageInOneQuery() {
+        // Given
+        OrderSummary order1 = new OrderSummary(testOrderId, testCustomerId, testShopId, LocalDateTime.now(),
+                OrderStatus.PAID, Money.parse("9.00"), null, null);
+        OrderSummary order2 = new OrderSummary(UUID.randomUUID(), testCustomerId, testShopId,
+                order1.orderTime().minusMinutes(5), OrderStatus.PREPARING, Money.parse("10.00"), null, null);
+
+        OrderItemSummary item = new OrderItemSummary(testOrderId, testMenuItemId, "Latte", 2, Money.parse("4.50"));
+
+        when(orderRepository.findByShopId(eq(testShopId), any()))
+                .thenReturn(new PageImpl<>(Arrays.asList(order1, order2)));
+        when(orderItemRepository.findByOrderIdInAndOrderTimeBetween(any(), eq(order2.orderTime()),
+                eq(order1.orderTime()))).thenReturn(Arrays.asList(item));
+
+        // When
+        var response = orderService.getOrdersByShop(testShopId, PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(2, response.getContent().size());
+        assertEquals(1, response.getContent().get(0).getItems().size());
+        assertEquals(Money.parse("9.00"), response.getContent().get(0).getItems().get(0).getTotalPrice());
+        assertTrue(response.getContent().get(1).getItems().isEmpty());
+        verify(orderItemRepository, times(1)).findByOrderIdInAndOrderTimeBetween(any(), any(), any());
+        verify(orderItemRepository, never()).findByOrderIdAndOrderTime(any(), any());
+    }
+
+    // Lets the compare-and-set apply, moving the order from its current status to the given one
+    private void stubStatusChange(Order order, OrderStatus newStatus) {
+        OrderStatusChange change = statusChange(order, newStatus);
+        when(orderRepository.findById(order.getId())).thenReturn(Optional.of(order));
+        when(orderRepository.compareAndSetStatus(eq(order.getId()), eq(order.getOrderTime()), any(), eq(newStatus.name()), any()))
+                .thenReturn(Optional.of(change));
+    }
+
+    // Row of a compare-and-set that moved the order from its current status to the given one
+    private OrderStatusChange statusChange(Order order, OrderStatus newStatus) {
+        OrderStatusChange change = mock(OrderStatusChange.class);
+        when(change.getId()).thenReturn(order.getId());
+        when(change.previousStatus()).thenReturn(order.getStatus());
+        when(change.toOrder()).thenAnswer(invocation -> {
+            order.setStatus(newStatus);
+            return order;
+        });
+        return change;
+    }
 }
@@ -0,0 +1,136 @@
+package com.ioidigital.orderservice.service;
+
+import com.ioidigital.orderservice.dto.OrderItemDto;
+import com.ioidigital.orderservice.dto.OrderRequest;
+import com.ioidigital.orderservice.dto.OrderStatusUpdateRequest;
+import com.ioidigital.orderservice.entity.Order;
+import com.ioidigital.orderservice.entity.OrderEventType;
+import com.ioidigital.orderservice.entity.OrderStatus;
+import com.ioidigital.orderservice.exception.InvalidOrderException;
+import com.ioidigital.orderservice.repository.OrderEventRepository;
+import com.ioidigital.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many concurrent status updates against one order: the compare-and-set must let exactly one
+ * conflicting transition through and reject the rest, with no lost or duplicated changes.
+ */
+@SpringBootTest
+@Testcontainers
+class OrderStatusConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final UUID SHOP_ID = UUID.fromString("b0000000-0000-0000-0000-000000000001");
+    private static final UUID LATTE_ID = UUID.fromString("a0000000-0000-0000-0000-000000000001");
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("order.outbox.relay.enabled", () -> "false");
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderEventRepository orderEventRepository;
+
+    private UUID orderId;
+
+    @BeforeEach
+    void setUp() {
+        orderId = orderService.createOrder(OrderRequest.builder()
+                .shopId(SHOP_ID)
+                .customerId(UUID.randomUUID())
+                .items(List.of(OrderItemDto.builder().menuItemId(LATTE_ID).quantity(1).build()))
+                .build()).getOrderId();
+    }
+
+    @Test
+    void sameTransitionFromManyThreads_AppliesOnce() throws Exception {
+        List<Boolean> outcomes = hammer(i -> OrderStatus.PREPARING);
+
+        assertThat(outcomes).containsOnlyOnce(true);
+        Order order = orderRepository.findById(orderId).orElseThrow();
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PREPARING);
+        assertThat(order.getVersion()).isEqualTo(1);
+        assertThat(statusChangeEvents()).isEqualTo(1);
+    }
+
+    @Test
+    void readyRacingCancel_OnlyOneWins() throws Exception {
+        orderService.updateOrderStatus(orderId, OrderStatusUpdateRequest.builder().status(OrderStatus.PREPARING).build());
+
+        List<Boolean> outcomes = hammer(i -> i % 2 == 0 ? OrderStatus.READY_FOR_PICKUP : OrderStatus.CANCELLED);
+
+        assertThat(outcomes).containsOnlyOnce(true);
+        Order order = orderRepository.findById(orderId).orElseThrow();
+        assertThat(order.getStatus()).isIn(OrderStatus.READY_FOR_PICKUP, OrderStatus.CANCELLED);
+        assertThat(order.getVersion()).isEqualTo(2);
+        assertThat(statusChangeEvents()).isEqualTo(2);
+    }
+
+    // Fires one status update per thread, all released at once; true where the update applied
+    private List<Boolean> hammer(IntFunction<OrderStatus> targetOfThread) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                OrderStatus target = targetOfThread.apply(i);
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        orderService.updateOrderStatus(orderId, OrderStatusUpdateRequest.builder().status(target).build());
+                        return true;
+                    } catch (InvalidOrderException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            List<Boolean> outcomes = new ArrayList<>();
+            for (Future<Boolean> future : futures) {
+                outcomes.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return outcomes;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private long statusChangeEvents() {
+        return orderEventRepository.findAll().stream()
+                .filter(event -> event.getOrderId().equals(orderId))
+                .filter(event -> event.getEventType() == OrderEventType.ORDER_STATUS_CHANGED)
+                .count();
+    }
+}
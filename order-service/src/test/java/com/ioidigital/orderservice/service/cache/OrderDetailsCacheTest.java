@@ -0,0 +1,112 @@
+package com.ioidigital.orderservice.service.cache;
+
+import com.ioidigital.orderservice.dto.OrderResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderDetailsCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderDetailsCache cache;
+    private UUID orderId;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new OrderDetailsCache(Duration.ofMinutes(1), 100, meterRegistry);
+        orderId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_ConcurrentMisses_LoadOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<OrderResponse>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return cache.get(orderId, id -> {
+                        loads.incrementAndGet();
+                        sleep(100);
+                        return response(id);
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<OrderResponse> result : results) {
+                assertEquals(orderId, result.get(5, TimeUnit.SECONDS).getOrderId());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "orderDetails").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void evictAfterCommit_KeepsEntryUntilCommit() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(orderId, id -> {
+            loads.incrementAndGet();
+            return response(id);
+        });
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.evictAfterCommit(orderId);
+        cache.get(orderId, id -> {
+            loads.incrementAndGet();
+            return response(id);
+        });
+        assertEquals(1, loads.get());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        cache.get(orderId, id -> {
+            loads.incrementAndGet();
+            return response(id);
+        });
+        assertEquals(2, loads.get());
+    }
+
+    private static OrderResponse response(UUID orderId) {
+        OrderResponse response = new OrderResponse();
+        response.setOrderId(orderId);
+        response.setStatus("PAID");
+        return response;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
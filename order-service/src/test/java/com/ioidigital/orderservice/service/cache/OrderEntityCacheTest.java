@@ -0,0 +1,97 @@
+package com.ioidigital.orderservice.service.cache;
+
+import com.ioidigital.orderservice.dto.OrderItemDto;
+import com.ioidigital.orderservice.dto.OrderRequest;
+import com.ioidigital.orderservice.dto.OrderResponse;
+import com.ioidigital.orderservice.dto.OrderStatusUpdateRequest;
+import com.ioidigital.orderservice.entity.Order;
+import com.ioidigital.orderservice.entity.OrderStatus;
+import com.ioidigital.orderservice.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Orders and their lines served from Hibernate's second-level cache, and status changes written
+ * by the native compare-and-set showing up in the next read.
+ */
+@SpringBootTest
+@Testcontainers
+class OrderEntityCacheTest {
+
+    private static final UUID SHOP_ID = UUID.fromString("b0000000-0000-0000-0000-000000000001");
+    private static final UUID LATTE_ID = UUID.fromString("a0000000-0000-0000-0000-000000000001");
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("order.outbox.relay.enabled", () -> "false");
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderDetailsCache orderDetailsCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private UUID orderId;
+
+    @BeforeEach
+    void setUp() {
+        orderId = orderService.createOrder(OrderRequest.builder()
+                .shopId(SHOP_ID)
+                .customerId(UUID.randomUUID())
+                .items(List.of(OrderItemDto.builder().menuItemId(LATTE_ID).quantity(2).build()))
+                .build()).getOrderId();
+    }
+
+    @Test
+    void orderDetails_CacheOrderAndItsLines() {
+        OrderResponse details = orderService.getOrderDetails(orderId);
+
+        assertThat(details.getItems()).hasSize(1);
+        org.hibernate.Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        assertThat(cache.containsEntity(Order.class, orderId)).isTrue();
+        assertThat(cache.containsCollection(Order.class.getName() + ".items", orderId)).isTrue();
+
+        orderDetailsCache.evictAll();
+        assertThat(orderService.getOrderDetails(orderId).getItems()).isEqualTo(details.getItems());
+        assertThat(meterRegistry.find("cache.gets").tag("cache", Order.CACHE_REGION).tag("result", "hit")
+                .functionCounter().count()).isPositive();
+    }
+
+    @Test
+    void statusChange_IsSeenThroughTheCachedOrder() {
+        assertThat(orderService.getOrderDetails(orderId).getStatus()).isEqualTo("PAID");
+
+        orderService.updateOrderStatus(orderId, OrderStatusUpdateRequest.builder().status(OrderStatus.PREPARING).build());
+        orderDetailsCache.evictAll();
+
+        assertThat(orderService.getOrderDetails(orderId).getStatus()).isEqualTo("PREPARING");
+    }
+}
@@ -0,0 +1,152 @@
+package com.ioidigital.orderservice.service.eta;
+
+import com.ioidigital.orderservice.entity.OrderItem;
+import com.ioidigital.orderservice.entity.OrderStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderEtaEstimatorTest {
+
+    private MutableClock clock;
+    private OrderEtaEstimator estimator;
+    private LocalDateTime start;
+    private UUID shopId;
+    private UUID espresso;
+    private UUID latte;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2026-10-17T08:00:00Z"));
+        estimator = new OrderEtaEstimator(0.2, Duration.ofMinutes(2), 0.1, clock);
+        start = LocalDateTime.now(clock);
+        shopId = UUID.randomUUID();
+        espresso = UUID.randomUUID();
+        latte = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void orderPlaced_WithoutHistory_DefaultUnitTimeAndWorkQueuedAhead() {
+        assertEquals(start.plusMinutes(4), estimator.orderPlaced(shopId, UUID.randomUUID(), items(espresso, 2)));
+        assertEquals(start.plusMinutes(6), estimator.orderPlaced(shopId, UUID.randomUUID(), items(latte, 1)));
+        // Other shops have their own queue
+        assertEquals(start.plusMinutes(2), estimator.orderPlaced(UUID.randomUUID(), UUID.randomUUID(), items(latte, 1)));
+    }
+
+    @Test
+    void statusChanged_LearnsUnitTimesFromPreparation() {
+        UUID orderId = UUID.randomUUID();
+        estimator.orderPlaced(shopId, orderId, items(espresso, 2));
+        estimator.statusChanged(orderId, OrderStatus.PREPARING);
+        clock.advance(Duration.ofSeconds(90));
+        estimator.statusChanged(orderId, OrderStatus.READY_FOR_PICKUP);
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        assertNull(estimator.currentEta(orderId));
+        // 90 seconds for two espressos
+        assertEquals(now.plusSeconds(45), estimator.orderPlaced(shopId, UUID.randomUUID(), items(espresso, 1)));
+        // Unseen items fall back to the shop's average, other shops to the default
+        assertEquals(now.plusSeconds(90), estimator.orderPlaced(shopId, UUID.randomUUID(), items(latte, 1)));
+        assertEquals(now.plusSeconds(45), estimator.orderPlaced(UUID.randomUUID(), UUID.randomUUID(), items(espresso, 1)));
+    }
+
+    @Test
+    void statusChanged_CancelledOrderAheadMovesLaterOrdersUp() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        estimator.orderPlaced(shopId, first, items(espresso, 1));
+        estimator.orderPlaced(shopId, second, items(espresso, 1));
+        assertEquals(start.plusMinutes(4), estimator.currentEta(second));
+
+        estimator.statusChanged(first, OrderStatus.CANCELLED);
+
+        assertEquals(start.plusMinutes(2), estimator.currentEta(second));
+    }
+
+    @Test
+    void statusChanged_FasterShopRecomputesWaitingOrders() {
+        UUID[] orders = new UUID[4];
+        for (int i = 0; i < orders.length; i++) {
+            orders[i] = UUID.randomUUID();
+            estimator.orderPlaced(shopId, orders[i], items(espresso, 1));
+        }
+        assertEquals(start.plusMinutes(8), estimator.currentEta(orders[3]));
+
+        // The first completion only learns the item time; the next one, with orders waiting all along, the speed
+        estimator.statusChanged(orders[0], OrderStatus.PREPARING);
+        clock.advance(Duration.ofSeconds(30));
+        estimator.statusChanged(orders[0], OrderStatus.READY_FOR_PICKUP);
+        estimator.statusChanged(orders[1], OrderStatus.PREPARING);
+        clock.advance(Duration.ofSeconds(10));
+        estimator.statusChanged(orders[1], OrderStatus.READY_FOR_PICKUP);
+
+        // 120s of predicted work cleared in 10s: speed 1 + 0.2 * (12 - 1) = 3.2, two orders of 120s left
+        assertEquals(start.plusSeconds(40 + 75), estimator.currentEta(orders[3]));
+    }
+
+    @Test
+    void orderPlaced_RolledBackOrderLeavesTheQueue() {
+        TransactionSynchronizationManager.initSynchronization();
+        UUID orderId = UUID.randomUUID();
+        estimator.orderPlaced(shopId, orderId, items(espresso, 1));
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertNull(estimator.currentEta(orderId));
+        assertEquals(start.plusMinutes(2), estimator.orderPlaced(shopId, UUID.randomUUID(), items(espresso, 1)));
+    }
+
+    private static List<OrderItem> items(UUID menuItemId, int quantity) {
+        return List.of(OrderItem.builder().menuItemId(menuItemId).quantity(quantity).build());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
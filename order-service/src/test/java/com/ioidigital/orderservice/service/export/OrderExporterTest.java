@@ -0,0 +1,139 @@
+package com.ioidigital.orderservice.service.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ioidigital.orderservice.entity.Money;
+import com.ioidigital.orderservice.entity.Order;
+import com.ioidigital.orderservice.entity.OrderItem;
+import com.ioidigital.orderservice.entity.OrderStatus;
+import com.ioidigital.orderservice.repository.OrderItemRepository;
+import com.ioidigital.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "order.export.fetch-size=2")
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import(OrderExporter.class)
+class OrderExporterTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private OrderExporter orderExporter;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final UUID shopId = UUID.randomUUID();
+    private final LocalDateTime from = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+    private final LocalDateTime to = from.plusDays(1);
+    private Order earlier;
+    private Order later;
+
+    @BeforeEach
+    void setUp() {
+        earlier = saveOrder(shopId, from.plusHours(8), "Flat white");
+        later = saveOrder(shopId, from.plusHours(9), "Mocha, \"large\"", "Croissant");
+        saveOrder(shopId, to, "Outside the range");
+        saveOrder(UUID.randomUUID(), from.plusHours(9), "Other shop");
+        saveOrder(shopId, from.plusHours(10));
+        orderRepository.flush();
+        orderItemRepository.flush();
+    }
+
+    @Test
+    void export_Ndjson_OneOrderWithItsItemsPerLineOldestFirst() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = orderExporter.export(shopId, from, to, ExportFormat.NDJSON, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(exported).isEqualTo(3);
+        assertThat(lines).hasSize(3);
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        JsonNode second = objectMapper.readTree(lines.get(1));
+        JsonNode third = objectMapper.readTree(lines.get(2));
+        assertThat(first.get("orderId").asText()).isEqualTo(earlier.getId().toString());
+        assertThat(first.get("items")).hasSize(1);
+        assertThat(second.get("orderId").asText()).isEqualTo(later.getId().toString());
+        assertThat(second.get("items")).hasSize(2);
+        assertThat(second.get("items").findValuesAsText("itemName"))
+                .containsExactlyInAnyOrder("Mocha, \"large\"", "Croissant");
+        assertThat(third.get("items")).isEmpty();
+    }
+
+    @Test
+    void export_Csv_OneRowPerItemWithQuoting() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        orderExporter.export(shopId, from, to, ExportFormat.CSV, out);
+
+        List<String> rows = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(rows).hasSize(5);
+        assertThat(rows.get(0)).startsWith("order_id,");
+        assertThat(rows.get(1)).startsWith(earlier.getId() + ",").endsWith(",Flat white,2,3.50,7.00");
+        assertThat(rows.subList(2, 4)).anySatisfy(row ->
+                assertThat(row).contains(",\"Mocha, \"\"large\"\"\",2,3.50,7.00"));
+        // An order without items still gets a row
+        assertThat(rows.get(4)).endsWith(",,,,");
+    }
+
+    private Order saveOrder(UUID shop, LocalDateTime orderTime, String... itemNames) {
+        Order order = orderRepository.save(Order.builder()
+                .id(UUID.randomUUID())
+                .customerId(UUID.randomUUID())
+                .shopId(shop)
+                .status(OrderStatus.PAID)
+                .totalAmount(Money.parse("7.00").times(itemNames.length))
+                .orderTime(orderTime)
+                .build());
+        for (String itemName : itemNames) {
+            orderItemRepository.save(OrderItem.builder()
+                    .id(UUID.randomUUID())
+                    .orderId(order.getId())
+                    .orderTime(orderTime)
+                    .menuItemId(UUID.randomUUID())
+                    .itemName(itemName)
+                    .quantity(2)
+                    .unitPrice(Money.parse("3.50"))
+                    .build());
+        }
+        return order;
+    }
+}
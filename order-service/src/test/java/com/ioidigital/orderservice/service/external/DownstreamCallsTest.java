@@ -0,0 +1,115 @@
+package com.ioidigital.orderservice.service.external;
+
+import com.ioidigital.orderservice.exception.DownstreamServiceException;
+import com.ioidigital.orderservice.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DownstreamCallsTest {
+
+    private DownstreamCalls downstreamCalls;
+
+    @BeforeEach
+    void setUp() {
+        downstreamCalls = new DownstreamCalls(new SimpleAsyncTaskExecutor(), Duration.ofMillis(500), Duration.ofMillis(800));
+    }
+
+    @Test
+    void awaitAll_RunsCallsConcurrently() {
+        long start = System.nanoTime();
+        CompletableFuture<String> shop = downstreamCalls.submit("Shop service", () -> sleepThen(200, "shop"));
+        CompletableFuture<String> menu = downstreamCalls.submit("Menu service", () -> sleepThen(200, "menu"));
+
+        downstreamCalls.awaitAll(shop, menu);
+
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        assertEquals("shop", shop.join());
+        assertEquals("menu", menu.join());
+        assertTrue(elapsedMillis < 380, "calls ran one after another: " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void awaitAll_FirstFailureCancelsTheRest() {
+        CompletableFuture<Boolean> shop = downstreamCalls.submit("Shop service", () -> {
+            throw new ResourceNotFoundException("Shop not found");
+        });
+        CompletableFuture<String> menu = downstreamCalls.submit("Menu service", () -> sleepThen(400, "menu"));
+
+        long start = System.nanoTime();
+        assertThrows(ResourceNotFoundException.class, () -> downstreamCalls.awaitAll(shop, menu));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 300);
+        assertTrue(menu.isCancelled());
+    }
+
+    @Test
+    void awaitAll_SlowCallTimesOut() {
+        CompletableFuture<String> menu = downstreamCalls.submit("Menu service", () -> sleepThen(2_000, "menu"));
+
+        DownstreamServiceException e = assertThrows(DownstreamServiceException.class,
+                () -> downstreamCalls.awaitAll(menu));
+
+        assertTrue(e.getMessage().startsWith("Menu service timed out"));
+    }
+
+    @Test
+    void awaitAll_CancelledCallIsInterrupted() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CompletableFuture<String> menu = downstreamCalls.submit("Menu service", () -> {
+            started.countDown();
+            try {
+                Thread.sleep(5_000);
+                return "menu";
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+                return null;
+            } finally {
+                stopped.countDown();
+            }
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> shop = downstreamCalls.submit("Shop service", () -> {
+            throw new ResourceNotFoundException("Shop not found");
+        });
+
+        assertThrows(ResourceNotFoundException.class, () -> downstreamCalls.awaitAll(shop, menu));
+
+        assertTrue(stopped.await(1, TimeUnit.SECONDS), "menu call kept running");
+        assertTrue(interrupted.get());
+    }
+
+    @Test
+    void submit_TimedOutCallIsInterrupted() throws InterruptedException {
+        CountDownLatch stopped = new CountDownLatch(1);
+        CompletableFuture<String> menu = downstreamCalls.submit("Menu service", () -> {
+            try {
+                return sleepThen(5_000, "menu");
+            } finally {
+                stopped.countDown();
+            }
+        });
+
+        assertTrue(stopped.await(1, TimeUnit.SECONDS), "menu call kept running past its timeout");
+        assertTrue(menu.isCompletedExceptionally());
+    }
+
+    private static String sleepThen(long millis, String value) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,83 @@
+package com.ioidigital.orderservice.service.external;
+
+import com.ioidigital.orderservice.dto.MenuItemDetails;
+import com.ioidigital.orderservice.entity.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MenuServiceClientTest {
+
+    private static final UUID LATTE_ID = UUID.fromString("a0000000-0000-0000-0000-000000000001");
+    private static final UUID ESPRESSO_ID = UUID.fromString("a0000000-0000-0000-0000-000000000003");
+    private static final UUID SEASONAL_ID = UUID.fromString("a0000000-0000-0000-0000-000000000005");
+
+    private MenuServiceClient menuServiceClient;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        menuServiceClient = new MenuServiceClient(Duration.ofMinutes(5), 100, meterRegistry);
+    }
+
+    @Test
+    void getMenuItems_ReturnsPriceNameAndAvailabilityInOneCall() {
+        Map<UUID, MenuItemDetails> menuItems = menuServiceClient.getMenuItems(Set.of(LATTE_ID, ESPRESSO_ID, SEASONAL_ID));
+
+        assertEquals(3, menuItems.size());
+        assertEquals("Latte", menuItems.get(LATTE_ID).getName());
+        assertEquals(Money.parse("3.00"), menuItems.get(ESPRESSO_ID).getPrice());
+        assertTrue(menuItems.get(LATTE_ID).isAvailable());
+        assertFalse(menuItems.get(SEASONAL_ID).isAvailable());
+    }
+
+    @Test
+    void getMenuItems_UnknownItemsAreAbsent() {
+        UUID unknownId = UUID.randomUUID();
+
+        Map<UUID, MenuItemDetails> menuItems = menuServiceClient.getMenuItems(Set.of(LATTE_ID, unknownId));
+
+        assertTrue(menuItems.containsKey(LATTE_ID));
+        assertFalse(menuItems.containsKey(unknownId));
+    }
+
+    @Test
+    void getMenuItems_ServesRepeatLookupsFromCacheUntilEvicted() {
+        MenuItemDetails first = menuServiceClient.getMenuItems(Set.of(LATTE_ID)).get(LATTE_ID);
+
+        assertSame(first, menuServiceClient.getMenuItems(Set.of(LATTE_ID)).get(LATTE_ID));
+        assertEquals(1, cacheMisses());
+
+        menuServiceClient.evictMenuItem(LATTE_ID);
+        assertEquals(first, menuServiceClient.getMenuItems(Set.of(LATTE_ID)).get(LATTE_ID));
+        assertEquals(2, cacheMisses());
+
+        menuServiceClient.evictAllMenuItems();
+        assertEquals(first, menuServiceClient.getMenuItems(Set.of(LATTE_ID)).get(LATTE_ID));
+        assertEquals(3, cacheMisses());
+    }
+
+    @Test
+    void getMenuItems_RecordsCallLatencyAndCacheHits() {
+        menuServiceClient.getMenuItems(Set.of(LATTE_ID));
+        menuServiceClient.getMenuItems(Set.of(LATTE_ID));
+
+        assertEquals(2, meterRegistry.get("downstream.client.requests")
+                .tags("client", "menu-service", "method", "getMenuItems", "outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tags("cache", "menuItems", "result", "hit")
+                .functionCounter().count());
+    }
+
+    // Each miss is a lookup the menu service had to answer
+    private double cacheMisses() {
+        return meterRegistry.get("cache.gets").tags("cache", "menuItems", "result", "miss").functionCounter().count();
+    }
+}
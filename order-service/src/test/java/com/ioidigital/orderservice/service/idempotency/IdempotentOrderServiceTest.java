@@ -0,0 +1,147 @@
+package com.ioidigital.orderservice.service.idempotency;
+
+import com.ioidigital.orderservice.dto.OrderItemDto;
+import com.ioidigital.orderservice.dto.OrderRequest;
+import com.ioidigital.orderservice.dto.OrderResponse;
+import com.ioidigital.orderservice.entity.IdempotencyKey;
+import com.ioidigital.orderservice.entity.IdempotencyKeyStatus;
+import com.ioidigital.orderservice.exception.IdempotencyConflictException;
+import com.ioidigital.orderservice.exception.InvalidOrderException;
+import com.ioidigital.orderservice.repository.IdempotencyKeyRepository;
+import com.ioidigital.orderservice.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class IdempotentOrderServiceTest {
+
+    @MockBean
+    private OrderService orderService;
+
+    @Autowired
+    private IdempotentOrderService idempotentOrderService;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private OrderRequest request;
+
+    @BeforeEach
+    void setUp() {
+        request = OrderRequest.builder()
+                .shopId(UUID.randomUUID())
+                .customerId(UUID.randomUUID())
+                .items(List.of(OrderItemDto.builder().menuItemId(UUID.randomUUID()).quantity(1).build()))
+                .build();
+    }
+
+    @Test
+    void createOrder_ConcurrentDuplicates_WaitForFirstRequest() throws Exception {
+        // Given
+        UUID orderId = UUID.randomUUID();
+        when(orderService.createOrder(any())).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            OrderResponse response = new OrderResponse();
+            response.setOrderId(orderId);
+            response.setStatus("PAID");
+            return response;
+        });
+        String idempotencyKey = UUID.randomUUID().toString();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(5);
+
+        // When
+        List<Future<IdempotentResult>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 5; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return idempotentOrderService.createOrder(idempotencyKey, request);
+                }));
+            }
+            start.countDown();
+
+            // Then
+            int created = 0;
+            for (Future<IdempotentResult> result : results) {
+                IdempotentResult idempotentResult = result.get(10, TimeUnit.SECONDS);
+                assertEquals(orderId, idempotentResult.getResponse().getOrderId());
+                created += idempotentResult.isReplayed() ? 0 : 1;
+            }
+            assertEquals(1, created);
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(orderService, times(1)).createOrder(any());
+        assertEquals(IdempotencyKeyStatus.COMPLETED,
+                idempotencyKeyRepository.findById(idempotencyKey).orElseThrow().getStatus());
+    }
+
+    @Test
+    void createOrder_FailedRequest_ReleasesKey() {
+        // Given
+        String idempotencyKey = UUID.randomUUID().toString();
+        when(orderService.createOrder(any())).thenThrow(new InvalidOrderException("Menu item not found"));
+
+        // When
+        assertThrows(InvalidOrderException.class, () -> idempotentOrderService.createOrder(idempotencyKey, request));
+
+        // Then
+        assertTrue(idempotencyKeyRepository.findById(idempotencyKey).isEmpty());
+    }
+
+    @Test
+    void createOrder_ClaimTakenOverMeanwhile_DoesNotComplete() {
+        // Given
+        String idempotencyKey = UUID.randomUUID().toString();
+        UUID otherToken = UUID.randomUUID();
+        when(orderService.createOrder(any())).thenAnswer(invocation -> {
+            // Another instance finds the lease expired and claims the key for itself
+            CompletableFuture.runAsync(() -> {
+                IdempotencyKey claim = idempotencyKeyRepository.findById(idempotencyKey).orElseThrow();
+                idempotencyKeyRepository.delete(claim);
+                idempotencyKeyRepository.saveAndFlush(IdempotencyKey.builder()
+                        .key(idempotencyKey)
+                        .requestHash(claim.getRequestHash())
+                        .claimToken(otherToken)
+                        .status(IdempotencyKeyStatus.IN_PROGRESS)
+                        .createdAt(LocalDateTime.now())
+                        .expiresAt(LocalDateTime.now().plusMinutes(1))
+                        .build());
+            }).join();
+            OrderResponse response = new OrderResponse();
+            response.setOrderId(UUID.randomUUID());
+            return response;
+        });
+
+        // When
+        assertThrows(IdempotencyConflictException.class,
+                () -> idempotentOrderService.createOrder(idempotencyKey, request));
+
+        // Then
+        IdempotencyKey claim = idempotencyKeyRepository.findById(idempotencyKey).orElseThrow();
+        assertEquals(IdempotencyKeyStatus.IN_PROGRESS, claim.getStatus());
+        assertEquals(otherToken, claim.getClaimToken());
+        assertNull(claim.getOrderId());
+    }
+}
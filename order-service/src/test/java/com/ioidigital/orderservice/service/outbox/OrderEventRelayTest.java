@@ -0,0 +1,165 @@
+package com.ioidigital.orderservice.service.outbox;
+
+import com.ioidigital.orderservice.entity.OrderEvent;
+import com.ioidigital.orderservice.entity.OrderEventStatus;
+import com.ioidigital.orderservice.entity.OrderEventType;
+import com.ioidigital.orderservice.repository.OrderEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderEventRelayTest {
+
+    private OrderEventRepository orderEventRepository;
+    private RecordingSink sink;
+    private OrderEventRelay relay;
+
+    private final UUID shopA = UUID.randomUUID();
+    private final UUID shopB = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        orderEventRepository = mock(OrderEventRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        sink = new RecordingSink();
+        relay = new OrderEventRelay(orderEventRepository, sink, transactionManager, 10, 3, Duration.ofSeconds(1),
+                Duration.ofDays(7));
+    }
+
+    @Test
+    void relayBatch_PublishesInSequenceOrderAndMarksPublished() {
+        OrderEvent first = event(1L, shopA);
+        OrderEvent second = event(2L, shopB);
+        OrderEvent third = event(3L, shopA);
+        stubBatches(List.of(first, second), Arrays.asList(first, second, third));
+
+        assertEquals(3, relay.relayBatch());
+
+        assertEquals(Arrays.asList(1L, 2L, 3L), sink.deliveredIds);
+        assertEquals(OrderEventStatus.PUBLISHED, first.getStatus());
+        assertNotNull(third.getPublishedAt());
+    }
+
+    @Test
+    void relayBatch_FailureSchedulesRetryAndHoldsBackItsShopOnly() {
+        OrderEvent failing = event(1L, shopA);
+        OrderEvent otherShop = event(2L, shopB);
+        OrderEvent sameShop = event(3L, shopA);
+        sink.failOn = 1L;
+        stubBatches(List.of(failing, otherShop), Arrays.asList(failing, otherShop, sameShop));
+
+        assertEquals(1, relay.relayBatch());
+
+        assertEquals(List.of(2L), sink.deliveredIds);
+        assertEquals(OrderEventStatus.PENDING, failing.getStatus());
+        assertEquals(1, failing.getAttempts());
+        assertNotNull(failing.getNextAttemptAt());
+        assertEquals(OrderEventStatus.PENDING, sameShop.getStatus());
+        assertEquals(0, sameShop.getAttempts());
+    }
+
+    @Test
+    void relayBatch_EventWaitingForRetryHoldsBackItsShop() {
+        // An earlier event became visible after this one had failed
+        OrderEvent earlier = event(1L, shopA);
+        OrderEvent waiting = event(2L, shopA);
+        waiting.setNextAttemptAt(LocalDateTime.now().plusMinutes(1));
+        OrderEvent later = event(3L, shopA);
+        stubBatches(List.of(earlier), Arrays.asList(earlier, waiting, later));
+
+        assertEquals(1, relay.relayBatch());
+
+        assertEquals(List.of(1L), sink.deliveredIds);
+        assertEquals(OrderEventStatus.PENDING, later.getStatus());
+    }
+
+    @Test
+    void relayBatch_NothingDue_ReadsNoShops() {
+        when(orderEventRepository.findDeliverable(eq(OrderEventStatus.PENDING), any(), any())).thenReturn(List.of());
+
+        assertEquals(0, relay.relayBatch());
+
+        verify(orderEventRepository, never()).findByShopIdInAndStatusOrderBySequenceNumber(any(), any(), any());
+    }
+
+    @Test
+    void drain_ContinuesUntilNothingIsDelivered() {
+        OrderEvent created = event(1L, shopA);
+        OrderEvent statusChanged = event(2L, shopA);
+        // The status change was recorded while the first batch was out
+        when(orderEventRepository.findDeliverable(eq(OrderEventStatus.PENDING), any(), any()))
+                .thenReturn(List.of(created), List.of(statusChanged), List.of());
+        when(orderEventRepository.findByShopIdInAndStatusOrderBySequenceNumber(eq(Set.of(shopA)),
+                eq(OrderEventStatus.PENDING), any()))
+                .thenReturn(List.of(created), List.of(statusChanged));
+
+        relay.drain();
+
+        assertEquals(Arrays.asList(1L, 2L), sink.deliveredIds);
+    }
+
+    @Test
+    void relayBatch_GivesUpAfterMaxAttempts() {
+        OrderEvent failing = event(1L, shopA);
+        failing.setAttempts(2);
+        OrderEvent otherShop = event(2L, shopB);
+        sink.failOn = 1L;
+        stubBatches(Arrays.asList(failing, otherShop), Arrays.asList(failing, otherShop));
+
+        relay.relayBatch();
+
+        assertEquals(OrderEventStatus.FAILED, failing.getStatus());
+        assertEquals(List.of(2L), sink.deliveredIds);
+    }
+
+    // The shops' first events, then the pending events of those shops in sequence order
+    private void stubBatches(List<OrderEvent> firstOfShops, List<OrderEvent> batch) {
+        when(orderEventRepository.findDeliverable(eq(OrderEventStatus.PENDING), any(), any())).thenReturn(firstOfShops);
+        when(orderEventRepository.findByShopIdInAndStatusOrderBySequenceNumber(any(), eq(OrderEventStatus.PENDING), any()))
+                .thenReturn(batch);
+    }
+
+    private OrderEvent event(Long id, UUID shopId) {
+        return OrderEvent.builder()
+                .id(id)
+                .sequenceNumber(id)
+                .orderId(UUID.randomUUID())
+                .shopId(shopId)
+                .eventType(OrderEventType.ORDER_CREATED)
+                .payload("{}")
+                .status(OrderEventStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static class RecordingSink implements OrderEventSink {
+        private final List<Long> deliveredIds = new ArrayList<>();
+        private Long failOn;
+
+        @Override
+        public void publish(OrderEvent event) {
+            if (event.getId().equals(failOn)) {
+                throw new IllegalStateException("broker unavailable");
+            }
+            deliveredIds.add(event.getId());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.ioidigital.orderservice.service.partition;
+
+import com.ioidigital.orderservice.entity.Money;
+import com.ioidigital.orderservice.entity.Order;
+import com.ioidigital.orderservice.entity.OrderStatus;
+import com.ioidigital.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Each test runs in a transaction that is rolled back, partition DDL included
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class OrderPartitionMaintenanceTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private final YearMonth thisMonth = YearMonth.now();
+
+    @Test
+    void migration_PartitionsFromLastMonthToThreeMonthsAhead() {
+        for (int month = -1; month <= 3; month++) {
+            assertThat(partitionsOf("orders")).contains(partition("orders", thisMonth.plusMonths(month)));
+            assertThat(partitionsOf("order_items")).contains(partition("order_items", thisMonth.plusMonths(month)));
+        }
+    }
+
+    @Test
+    void maintain_CreatesPartitionsAheadOfTheClock() {
+        OrderPartitionMaintenance maintenance = maintenance(2, 0);
+        YearMonth later = thisMonth.plusMonths(8);
+
+        assertThat(maintenance.maintain(thisMonth.plusMonths(6))).isTrue();
+
+        assertThat(partitionsOf("orders")).contains(partition("orders", later));
+        assertThat(partitionsOf("order_items")).contains(partition("order_items", later));
+
+        // Orders placed in that month now have somewhere to go
+        Order order = orderRepository.saveAndFlush(Order.builder()
+                .customerId(UUID.randomUUID())
+                .shopId(UUID.randomUUID())
+                .status(OrderStatus.PAID)
+                .totalAmount(Money.parse("10.00"))
+                .orderTime(later.atDay(15).atTime(9, 30))
+                .build());
+        String stored = jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM orders WHERE id = ?",
+                String.class, order.getId());
+        assertThat(stored).isEqualTo(partition("orders", later));
+    }
+
+    @Test
+    void maintain_IsIdempotent() {
+        OrderPartitionMaintenance maintenance = maintenance(3, 0);
+        int partitions = partitionsOf("orders").size();
+
+        maintenance.maintain(thisMonth);
+        maintenance.maintain(thisMonth);
+
+        assertThat(partitionsOf("orders")).hasSize(partitions);
+    }
+
+    @Test
+    void maintain_DetachesPartitionsOlderThanRetention() {
+        OrderPartitionMaintenance maintenance = maintenance(0, 1);
+
+        maintenance.maintain(thisMonth.plusMonths(1));
+
+        // Only last month's partitions are older than one month before next month
+        assertThat(partitionsOf("orders")).doesNotContain(partition("orders", thisMonth.minusMonths(1)))
+                .contains(partition("orders", thisMonth));
+        assertThat(partitionsOf("order_items")).doesNotContain(partition("order_items", thisMonth.minusMonths(1)))
+                .contains(partition("order_items", thisMonth));
+        // Detached, not dropped
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+                partition("orders", thisMonth.minusMonths(1)))).isTrue();
+    }
+
+    private OrderPartitionMaintenance maintenance(int monthsAhead, int retentionMonths) {
+        return new OrderPartitionMaintenance(jdbcTemplate, transactionManager, monthsAhead, retentionMonths,
+                Duration.ofSeconds(5));
+    }
+
+    private List<String> partitionsOf(String table) {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "WHERE i.inhparent = to_regclass(?)", String.class, table);
+    }
+
+    private static String partition(String table, YearMonth month) {
+        return String.format("%s_p%d_%02d", table, month.getYear(), month.getMonthValue());
+    }
+}
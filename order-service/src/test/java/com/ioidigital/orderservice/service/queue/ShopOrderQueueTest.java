@@ -0,0 +1,114 @@
+package com.ioidigital.orderservice.service.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShopOrderQueueTest {
+
+    @Test
+    void enqueue_ReturnsPositionsInArrivalOrder() {
+        ShopOrderQueue queue = new ShopOrderQueue();
+
+        assertEquals(1, queue.enqueue(UUID.randomUUID()));
+        assertEquals(2, queue.enqueue(UUID.randomUUID()));
+        assertEquals(3, queue.enqueue(UUID.randomUUID()));
+    }
+
+    @Test
+    void enqueue_SameOrderTwiceKeepsItsPlace() {
+        ShopOrderQueue queue = new ShopOrderQueue();
+        UUID orderId = UUID.randomUUID();
+
+        queue.enqueue(orderId);
+        queue.enqueue(UUID.randomUUID());
+
+        assertEquals(1, queue.enqueue(orderId));
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    void remove_FromMiddleMovesLaterOrdersUp() {
+        ShopOrderQueue queue = new ShopOrderQueue();
+        UUID first = UUID.randomUUID();
+        UUID middle = UUID.randomUUID();
+        UUID last = UUID.randomUUID();
+        queue.enqueue(first);
+        queue.enqueue(middle);
+        queue.enqueue(last);
+
+        assertTrue(queue.remove(middle));
+
+        assertEquals(1, queue.positionOf(first));
+        assertNull(queue.positionOf(middle));
+        assertEquals(2, queue.positionOf(last));
+        assertFalse(queue.remove(middle));
+    }
+
+    @Test
+    void positions_MatchArrivalOrderAfterRandomRemovals() {
+        ShopOrderQueue queue = new ShopOrderQueue();
+        List<UUID> expected = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            UUID orderId = UUID.randomUUID();
+            queue.enqueue(orderId);
+            expected.add(orderId);
+        }
+        List<UUID> removed = new ArrayList<>(expected);
+        Collections.shuffle(removed);
+        for (UUID orderId : removed.subList(0, 1_000)) {
+            queue.remove(orderId);
+            expected.remove(orderId);
+        }
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(i + 1, queue.positionOf(expected.get(i)));
+        }
+    }
+
+    @Test
+    void concurrentPlacementAndCancellation_KeepsPositionsExact() throws Exception {
+        ShopOrderQueue queue = new ShopOrderQueue();
+        int threads = 16;
+        int ordersPerThread = 500;
+        List<UUID> kept = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ordersPerThread; i++) {
+                    UUID orderId = UUID.randomUUID();
+                    queue.enqueue(orderId);
+                    if (i % 2 == 0) {
+                        queue.remove(orderId);
+                    } else {
+                        kept.add(orderId);
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(kept.size(), queue.size());
+        boolean[] seen = new boolean[kept.size() + 1];
+        for (UUID orderId : kept) {
+            int position = queue.positionOf(orderId);
+            assertFalse(seen[position], "duplicate position " + position);
+            seen[position] = true;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.ioidigital.orderservice.service.stats;
+
+import com.ioidigital.orderservice.dto.ShopOrderStatsResponse;
+import com.ioidigital.orderservice.entity.Money;
+import com.ioidigital.orderservice.entity.Order;
+import com.ioidigital.orderservice.entity.OrderStatus;
+import com.ioidigital.orderservice.repository.OrderRepository;
+import com.ioidigital.orderservice.repository.ShopSales;
+import com.ioidigital.orderservice.repository.ShopStatusCount;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ShopOrderStatsTest {
+
+    private OrderRepository orderRepository;
+    private ShopOrderStats stats;
+    private UUID shopId;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        stats = new ShopOrderStats(orderRepository, transactionManager);
+        shopId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void statsOf_CountsOrdersAndRevenueThroughTheirLifecycle() {
+        Order first = order("4.50");
+        Order second = order("7.25");
+        Order third = order("3.00");
+        stats.orderCreatedAfterCommit(first);
+        stats.orderCreatedAfterCommit(second);
+        stats.orderCreatedAfterCommit(third);
+
+        moveTo(first, OrderStatus.PREPARING);
+        moveTo(second, OrderStatus.PREPARING);
+        moveTo(second, OrderStatus.READY_FOR_PICKUP);
+        moveTo(third, OrderStatus.CANCELLED);
+
+        ShopOrderStatsResponse response = stats.statsOf(shopId);
+        assertEquals(0L, response.getOpenOrders().get(OrderStatus.PAID));
+        assertEquals(1L, response.getOpenOrders().get(OrderStatus.PREPARING));
+        assertEquals(1L, response.getOpenOrders().get(OrderStatus.READY_FOR_PICKUP));
+        assertEquals(2, response.getOpenOrdersTotal());
+        // The cancelled order no longer counts towards the day
+        assertEquals(2, response.getOrdersToday());
+        assertEquals(Money.parse("11.75"), response.getRevenueToday());
+        assertEquals(Money.parse("5.88"), response.getAverageTicket());
+    }
+
+    @Test
+    void statsOf_UnknownShopIsAllZero() {
+        ShopOrderStatsResponse response = stats.statsOf(shopId);
+
+        assertEquals(0, response.getOpenOrdersTotal());
+        assertEquals(0, response.getOrdersToday());
+        assertEquals(Money.parse("0.00"), response.getRevenueToday());
+        assertEquals(Money.parse("0.00"), response.getAverageTicket());
+    }
+
+    @Test
+    void orderCreatedAfterCommit_RolledBackOrderIsNotCounted() {
+        TransactionSynchronizationManager.initSynchronization();
+        stats.orderCreatedAfterCommit(order("4.50"));
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        assertEquals(0, stats.statsOf(shopId).getOpenOrdersTotal());
+    }
+
+    @Test
+    void reconcile_ReplacesCountersWithDatabaseAggregates() {
+        UUID otherShopId = UUID.randomUUID();
+        stats.orderCreatedAfterCommit(order("4.50"));
+        when(orderRepository.countByShopAndStatus(any())).thenReturn(List.of(
+                new ShopStatusCount(otherShopId, OrderStatus.PAID, 3),
+                new ShopStatusCount(otherShopId, OrderStatus.PREPARING, 2)));
+        when(orderRepository.sumSalesByShopSince(LocalDate.now().atStartOfDay())).thenReturn(List.of(
+                new ShopSales(otherShopId, 4, new BigDecimal("20.00"))));
+
+        stats.reconcile();
+
+        // The order counted here was never committed as far as the database knows
+        assertEquals(0, stats.statsOf(shopId).getOpenOrdersTotal());
+        assertEquals(0, stats.statsOf(shopId).getOrdersToday());
+        ShopOrderStatsResponse other = stats.statsOf(otherShopId);
+        assertEquals(3L, other.getOpenOrders().get(OrderStatus.PAID));
+        assertEquals(5, other.getOpenOrdersTotal());
+        assertEquals(4, other.getOrdersToday());
+        assertEquals(Money.parse("5.00"), other.getAverageTicket());
+        assertNotNull(other.getReconciledAt());
+    }
+
+    private Order order(String totalAmount) {
+        return Order.builder()
+                .id(UUID.randomUUID())
+                .shopId(shopId)
+                .status(OrderStatus.PAID)
+                .totalAmount(Money.parse(totalAmount))
+                .orderTime(LocalDateTime.now())
+                .build();
+    }
+
+    private void moveTo(Order order, OrderStatus status) {
+        OrderStatus previous = order.getStatus();
+        order.setStatus(status);
+        stats.statusChangedAfterCommit(order, previous);
+    }
+}